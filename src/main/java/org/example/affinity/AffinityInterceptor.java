@@ -0,0 +1,201 @@
+package org.example.affinity;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.deadline.DeadlineInterceptor;
+import org.example.deadline.RequestDeadline;
+import org.example.exception.DeadlineExceededException;
+import org.example.exception.ReplicaUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Sends requests for {@code /api/users/{id}} to the replica that owns the id, either by
+ * proxying the call or by answering with a 307 redirect. Requests that were already
+ * routed once are served locally.
+ * <p>
+ * A forwarded request falls back to local handling only when it cannot have run on the
+ * owner: the connection was refused before the body was sent, or the method is safe to
+ * repeat. Any other failure is reported as 502, or 504 on timeout, so a PUT or DELETE is
+ * never applied twice.
+ */
+public class AffinityInterceptor implements HandlerInterceptor {
+
+    static final String ROUTED_HEADER = "X-Affinity-Routed";
+    static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+    private static final List<String> FORWARDED_HEADERS = List.of(
+            HttpHeaders.ACCEPT, HttpHeaders.CONTENT_TYPE, "X-API-Key", "Idempotency-Key");
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    // hop-by-hop headers (RFC 9110, section 7.6.1) describe the proxied connection, not the response;
+    // the body is written in full, so the container sets its own length
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "proxy-connection",
+            "te", "trailer", "transfer-encoding", "upgrade", "content-length");
+
+    public enum Mode {
+        FORWARD,
+        REDIRECT
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AffinityInterceptor.class);
+
+    private final AffinityRouter router;
+    private final Mode mode;
+    private final HttpClient httpClient;
+    private final Duration timeout;
+
+    public AffinityInterceptor(AffinityRouter router, Mode mode, Duration timeout) {
+        this.router = router;
+        this.mode = mode;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || request.getHeader(ROUTED_HEADER) != null) {
+            return true;
+        }
+        Long userId = userId(request);
+        URI owner = userId != null ? router.ownerUri(userId) : null;
+        if (owner == null) {
+            return true;
+        }
+
+        String query = request.getQueryString();
+        URI target = owner.resolve(request.getRequestURI() + (query != null ? "?" + query : ""));
+        if (mode == Mode.REDIRECT) {
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION, target.toString());
+            return false;
+        }
+
+        boolean safe = SAFE_METHODS.contains(request.getMethod());
+        AtomicBoolean bodySent = new AtomicBoolean();
+        try {
+            forward(request, response, target, bodySent);
+            return false;
+        } catch (HttpConnectTimeoutException | ConnectException e) {
+            if (safe || !bodySent.get()) {
+                logger.debug("Owner {} unreachable, serving user {} locally: {}", owner, userId, e.getMessage());
+                return true;
+            }
+            throw new ReplicaUnavailableException("Owner replica " + owner + " is unreachable");
+        } catch (HttpTimeoutException e) {
+            if (safe) {
+                logger.debug("Owner {} timed out, serving user {} locally", owner, userId);
+                return true;
+            }
+            throw new DeadlineExceededException("Owner replica " + owner + " did not answer in time");
+        } catch (IOException e) {
+            if (safe) {
+                logger.debug("Forwarding to {} failed, serving user {} locally: {}", owner, userId, e.getMessage());
+                return true;
+            }
+            throw new ReplicaUnavailableException("Forwarding to owner replica " + owner + " failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReplicaUnavailableException("Interrupted while forwarding to owner replica " + owner);
+        }
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response, URI target, AtomicBoolean bodySent)
+            throws IOException, InterruptedException {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline != null) {
+            deadline.checkNotExpired("forwarding to the owner replica");
+        }
+        long budgetMillis = RequestDeadline.remainingMillisOr(timeout.toMillis());
+
+        // the body is streamed once the connection is up, so a refused connection leaves it unread
+        boolean hasBody = request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+        HttpRequest.BodyPublisher body = !hasBody
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofInputStream(() -> {
+                    bodySent.set(true);
+                    try {
+                        return request.getInputStream();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target)
+                .timeout(Duration.ofMillis(Math.max(1, budgetMillis)))
+                .header(ROUTED_HEADER, "1")
+                .header(FORWARDED_FOR_HEADER, forwardedFor(request))
+                .header(DeadlineInterceptor.TIMEOUT_HEADER, Long.toString(budgetMillis))
+                .method(request.getMethod(), body);
+        for (String header : FORWARDED_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                builder.header(header, value);
+            }
+        }
+
+        HttpResponse<byte[]> forwarded = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        response.setStatus(forwarded.statusCode());
+        copyEndToEndHeaders(forwarded, response);
+        response.getOutputStream().write(forwarded.body());
+    }
+
+    private static void copyEndToEndHeaders(HttpResponse<?> forwarded, HttpServletResponse response) {
+        Set<String> connectionOptions = forwarded.headers().allValues(HttpHeaders.CONNECTION).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(option -> option.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        forwarded.headers().map().forEach((name, values) -> {
+            String lowerCaseName = name.toLowerCase(Locale.ROOT);
+            if (lowerCaseName.startsWith(":") || HOP_BY_HOP_HEADERS.contains(lowerCaseName)
+                    || connectionOptions.contains(lowerCaseName)) {
+                return;
+            }
+            values.forEach(value -> response.addHeader(name, value));
+        });
+    }
+
+    private static String forwardedFor(HttpServletRequest request) {
+        String previous = request.getHeader(FORWARDED_FOR_HEADER);
+        return previous != null ? previous + ", " + request.getRemoteAddr() : request.getRemoteAddr();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Long userId(HttpServletRequest request) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String id = variables != null ? variables.get("id") : null;
+        if (id == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
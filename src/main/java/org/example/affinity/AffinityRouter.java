@@ -0,0 +1,72 @@
+package org.example.affinity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps user ids to the replica that owns them, using a consistent-hash ring over the
+ * instances registered in service discovery. Only the replicas whose range changed
+ * lose keys when instances join or leave.
+ */
+public class AffinityRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AffinityRouter.class);
+
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final String self;
+    private final int virtualNodes;
+
+    private volatile ConsistentHashRing ring = ConsistentHashRing.of(List.of(), 1);
+    private volatile Map<String, URI> instanceUris = Map.of();
+
+    public AffinityRouter(DiscoveryClient discoveryClient, String serviceId, String self, int virtualNodes) {
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.self = self;
+        this.virtualNodes = virtualNodes;
+    }
+
+    @Scheduled(fixedDelayString = "${app.affinity.refresh-interval-ms:10000}")
+    public void refresh() {
+        List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+        Map<String, URI> uris = new HashMap<>();
+        for (ServiceInstance instance : instances) {
+            uris.put(nodeId(instance.getHost(), instance.getPort()), instance.getUri());
+        }
+        if (!uris.keySet().equals(ring.nodes())) {
+            logger.info("Rebuilding affinity ring for {}: {} instances", serviceId, uris.size());
+            instanceUris = Map.copyOf(uris);
+            ring = ConsistentHashRing.of(uris.keySet(), virtualNodes);
+        }
+    }
+
+    /**
+     * @return the base URI of the owning replica, or {@code null} when this replica
+     * owns the user or no ring is known yet
+     */
+    public URI ownerUri(long userId) {
+        String owner = ring.ownerOf(userId);
+        if (owner == null || owner.equals(self)) {
+            return null;
+        }
+        return instanceUris.get(owner);
+    }
+
+    public boolean owns(long userId) {
+        String owner = ring.ownerOf(userId);
+        return owner == null || owner.equals(self);
+    }
+
+    public static String nodeId(String host, int port) {
+        return host + ":" + port;
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.affinity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring with virtual nodes. Lookups are a binary search over
+ * a sorted {@code long[]}, and membership changes build a new ring, so readers never lock.
+ */
+public final class ConsistentHashRing {
+
+    private static final ConsistentHashRing EMPTY = new ConsistentHashRing(new long[0], new String[0], Set.of());
+
+    private final long[] points;
+    private final String[] owners;
+    private final Set<String> nodes;
+
+    private ConsistentHashRing(long[] points, String[] owners, Set<String> nodes) {
+        this.points = points;
+        this.owners = owners;
+        this.nodes = nodes;
+    }
+
+    public static ConsistentHashRing of(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            return EMPTY;
+        }
+        Set<String> sortedNodes = new TreeSet<>(nodes);
+        Point[] ring = new Point[sortedNodes.size() * virtualNodes];
+        int i = 0;
+        for (String node : sortedNodes) {
+            for (int v = 0; v < virtualNodes; v++) {
+                ring[i++] = new Point(hash(node + "#" + v), node);
+            }
+        }
+        Arrays.sort(ring, Comparator.comparingLong(Point::hash));
+
+        long[] points = new long[ring.length];
+        String[] owners = new String[ring.length];
+        for (int p = 0; p < ring.length; p++) {
+            points[p] = ring[p].hash();
+            owners[p] = ring[p].node();
+        }
+        return new ConsistentHashRing(points, owners, Set.copyOf(sortedNodes));
+    }
+
+    /**
+     * @return the node owning {@code key}, or {@code null} when the ring is empty
+     */
+    public String ownerOf(long key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, mix(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public Set<String> nodes() {
+        return nodes;
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // murmur3 fmix64 finalizer: spreads sequential ids and FNV output over the whole ring
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private record Point(long hash, String node) {
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.config;
+
+import org.example.affinity.AffinityInterceptor;
+import org.example.affinity.AffinityRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "app.affinity.enabled", havingValue = "true")
+public class AffinityConfig implements WebMvcConfigurer {
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+
+    @Value("${spring.application.name}")
+    private String serviceId;
+
+    @Value("${app.affinity.self:}")
+    private String self;
+
+    @Value("${app.affinity.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${app.affinity.mode:FORWARD}")
+    private AffinityInterceptor.Mode mode;
+
+    @Value("${app.affinity.timeout-ms:2000}")
+    private long timeoutMillis;
+
+    public AffinityConfig(DiscoveryClient discoveryClient, ObjectProvider<Registration> registration) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+    }
+
+    @Bean
+    public AffinityRouter affinityRouter() {
+        String selfId = self;
+        if (!StringUtils.hasText(selfId)) {
+            Registration current = registration.getIfAvailable();
+            if (current == null) {
+                throw new IllegalStateException("app.affinity.self must be set when no service registration is available");
+            }
+            selfId = AffinityRouter.nodeId(current.getHost(), current.getPort());
+        }
+        return new AffinityRouter(discoveryClient, serviceId, selfId, virtualNodes);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AffinityInterceptor(
+                        affinityRouter(), mode, Duration.ofMillis(timeoutMillis)))
+                .addPathPatterns("/api/users/*")
+                .order(InterceptorOrder.AFFINITY);
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.config;
+
+import org.example.deadline.DeadlineInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class DeadlineConfig implements WebMvcConfigurer {
+
+    @Value("${app.deadline.default-ms:5000}")
+    private long defaultTimeoutMillis;
+
+    @Value("${app.deadline.max-ms:30000}")
+    private long maxTimeoutMillis;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DeadlineInterceptor(defaultTimeoutMillis, maxTimeoutMillis))
+                .addPathPatterns("/api/users/**", "/api/users")
+                .order(InterceptorOrder.DEADLINE);
+    }
+}
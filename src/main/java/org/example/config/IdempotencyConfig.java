@@ -0,0 +1,62 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.idempotency.IdempotencyFilter;
+import org.example.idempotency.IdempotencyStore;
+import org.example.idempotency.InMemoryIdempotencyStore;
+import org.example.idempotency.JdbcIdempotencyStore;
+import org.example.ratelimit.ClientKeyResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+@ConditionalOnProperty(name = "app.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Value("${app.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${app.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${app.idempotency.lease-seconds:30}")
+    private long leaseSeconds;
+
+    @Value("${app.idempotency.max-wait-ms:5000}")
+    private long maxWaitMillis;
+
+    @Value("${app.idempotency.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    @Value("${app.rate-limit.api-keys:}")
+    private Set<String> apiKeys;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.idempotency.store", havingValue = "jdbc")
+    public IdempotencyStore jdbcIdempotencyStore(JdbcTemplate jdbcTemplate) {
+        return new JdbcIdempotencyStore(jdbcTemplate, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(leaseSeconds));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore() {
+        return new InMemoryIdempotencyStore(maxEntries, Duration.ofSeconds(ttlSeconds));
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       ObjectMapper objectMapper) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(idempotencyStore, objectMapper, new ClientKeyResolver(apiKeys),
+                        Duration.ofMillis(maxWaitMillis), maxBodyBytes));
+        registration.addUrlPatterns("/api/users", "/api/users/*");
+        return registration;
+    }
+}
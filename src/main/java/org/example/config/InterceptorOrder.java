@@ -0,0 +1,16 @@
+package org.example.config;
+
+/**
+ * Order of the MVC interceptors on {@code /api/users}. The deadline is set first so
+ * forwarding can pass on the remaining budget. Affinity runs before rate limiting, so a
+ * forwarded request is charged once, on the owner, against the client it came from.
+ */
+final class InterceptorOrder {
+
+    static final int DEADLINE = 0;
+    static final int AFFINITY = 100;
+    static final int RATE_LIMIT = 200;
+
+    private InterceptorOrder() {
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.ratelimit.ClientKeyResolver;
+import org.example.ratelimit.ClientRateLimiter;
+import org.example.ratelimit.RateLimitInterceptor;
+import org.example.ratelimit.RateLimitTier;
+import org.example.ratelimit.RepositoryLatencySampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Set;
+
+@Configuration
+@ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    @Value("${app.rate-limit.cheap.requests-per-second:50}")
+    private double cheapRequestsPerSecond;
+
+    @Value("${app.rate-limit.cheap.burst:100}")
+    private int cheapBurst;
+
+    @Value("${app.rate-limit.expensive.requests-per-second:2}")
+    private double expensiveRequestsPerSecond;
+
+    @Value("${app.rate-limit.expensive.burst:5}")
+    private int expensiveBurst;
+
+    @Value("${app.rate-limit.adaptive.enabled:false}")
+    private boolean adaptive;
+
+    @Value("${app.rate-limit.adaptive.target-latency-ms:200}")
+    private long targetLatencyMillis;
+
+    @Value("${app.rate-limit.adaptive.min-factor:0.2}")
+    private double minFactor;
+
+    @Value("${app.rate-limit.max-clients:100000}")
+    private int maxClients;
+
+    @Value("${app.rate-limit.api-keys:}")
+    private Set<String> apiKeys;
+
+    @Bean
+    public ClientRateLimiter clientRateLimiter() {
+        return new ClientRateLimiter(adaptive, targetLatencyMillis, minFactor)
+                .budget(RateLimitTier.CHEAP, cheapRequestsPerSecond, cheapBurst)
+                .budget(RateLimitTier.EXPENSIVE, expensiveRequestsPerSecond, expensiveBurst)
+                .maxClients(maxClients);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.adaptive.enabled", havingValue = "true")
+    public RepositoryLatencySampler repositoryLatencySampler(MeterRegistry meterRegistry) {
+        return new RepositoryLatencySampler(meterRegistry, clientRateLimiter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(clientRateLimiter(), new ClientKeyResolver(apiKeys)))
+                .addPathPatterns("/api/users/**", "/api/users")
+                .order(InterceptorOrder.RATE_LIMIT);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.controller;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs at most one message per interval and reports how many were dropped in between.
+ */
+final class ThrottledLogger {
+
+    private final Logger logger;
+    private final long intervalNanos;
+    private final AtomicLong nextLogNanos = new AtomicLong(System.nanoTime());
+    private final LongAdder suppressed = new LongAdder();
+
+    ThrottledLogger(Logger logger, Duration interval) {
+        this.logger = logger;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    void warn(String format, Object arg) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long next = nextLogNanos.get();
+        if (now - next < 0 || !nextLogNanos.compareAndSet(next, now + intervalNanos)) {
+            suppressed.increment();
+            return;
+        }
+        long dropped = suppressed.sumThenReset();
+        if (dropped > 0) {
+            logger.warn(format + " ({} similar messages suppressed)", arg, dropped);
+        } else {
+            logger.warn(format, arg);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.UserDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+
+/**
+ * Streams a collection of users, either as HAL or as a bare JSON array,
+ * without building a CollectionModel graph.
+ * Links are derived from a single base href, and Jackson's recycled buffers are
+ * flushed to the output stream as they fill. Hrefs and timestamps are formatted into
+ * per-call scratch buffers, so writing a user allocates next to nothing.
+ */
+@Component
+public class UserCollectionWriter {
+
+    static final String EMBEDDED_REL = "userDtoList";
+
+    // same output as the JavaTimeModule serializer with WRITE_DATES_AS_TIMESTAMPS off
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final JsonFactory jsonFactory;
+
+    public UserCollectionWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public void writeHal(Iterator<UserDto> users, String collectionHref, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            if (users.hasNext()) {
+                Scratch scratch = new Scratch(collectionHref);
+                generator.writeObjectFieldStart("_embedded");
+                generator.writeArrayFieldStart(EMBEDDED_REL);
+                while (users.hasNext()) {
+                    writeUser(generator, users.next(), collectionHref, scratch);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeObjectFieldStart("_links");
+            writeLink(generator, "self", collectionHref);
+            writeLink(generator, "create", collectionHref);
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    public void writePlain(Iterator<UserDto> users, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            Scratch scratch = new Scratch("");
+            while (users.hasNext()) {
+                generator.writeStartObject();
+                writeUserFields(generator, users.next(), scratch);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeUser(JsonGenerator generator, UserDto user, String collectionHref, Scratch scratch)
+            throws IOException {
+        generator.writeStartObject();
+        writeUserFields(generator, user, scratch);
+
+        int hrefLength = scratch.userHref(user.getId());
+        generator.writeObjectFieldStart("_links");
+        writeLink(generator, "self", scratch.href, hrefLength);
+        writeLink(generator, "users", collectionHref);
+        writeLink(generator, "update", scratch.href, hrefLength);
+        writeLink(generator, "delete", scratch.href, hrefLength);
+        generator.writeEndObject();
+
+        generator.writeEndObject();
+    }
+
+    private void writeUserFields(JsonGenerator generator, UserDto user, Scratch scratch) throws IOException {
+        generator.writeNumberField("id", user.getId());
+        generator.writeStringField("name", user.getName());
+        generator.writeStringField("email", user.getEmail());
+        generator.writeNumberField("age", user.getAge());
+        generator.writeFieldName("createdAt");
+        if (user.getCreatedAt() == null) {
+            generator.writeNull();
+        } else {
+            int length = scratch.format(user.getCreatedAt());
+            generator.writeString(scratch.date, 0, length);
+        }
+    }
+
+    private void writeLink(JsonGenerator generator, String rel, String href) throws IOException {
+        generator.writeObjectFieldStart(rel);
+        generator.writeStringField("href", href);
+        generator.writeEndObject();
+    }
+
+    private void writeLink(JsonGenerator generator, String rel, char[] href, int length) throws IOException {
+        generator.writeObjectFieldStart(rel);
+        generator.writeFieldName("href");
+        generator.writeString(href, 0, length);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Reusable character buffers for one response: the collection href followed by the
+     * id of the user being written, and the formatted creation time.
+     */
+    private static final class Scratch {
+        private final char[] href;
+        private final int prefixLength;
+        private final StringBuilder dateBuilder = new StringBuilder(32);
+        private char[] date = new char[32];
+
+        private Scratch(String collectionHref) {
+            prefixLength = collectionHref.length() + 1;
+            href = new char[prefixLength + 20];
+            collectionHref.getChars(0, collectionHref.length(), href, 0);
+            href[prefixLength - 1] = '/';
+        }
+
+        private int userHref(long id) {
+            // ids are positive; digits are written backwards from the end, then moved up to the prefix
+            int position = href.length;
+            long remaining = id;
+            do {
+                href[--position] = (char) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining > 0);
+            int digits = href.length - position;
+            System.arraycopy(href, position, href, prefixLength, digits);
+            return prefixLength + digits;
+        }
+
+        private int format(LocalDateTime value) {
+            dateBuilder.setLength(0);
+            CREATED_AT_FORMAT.formatTo(value, dateBuilder);
+            int length = dateBuilder.length();
+            if (length > date.length) {
+                date = new char[length];
+            }
+            dateBuilder.getChars(0, length, date, 0);
+            return length;
+        }
+    }
+}
@@ -7,19 +7,23 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.deadline.RequestTimeout;
 import org.example.dto.*;
+import org.example.ratelimit.RateLimitTier;
+import org.example.ratelimit.RateLimited;
+import org.example.service.UserNameIndex;
 import org.example.service.UserService;
-import org.springframework.hateoas.CollectionModel;
+import org.example.service.UserStatsService;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
-import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.hateoas.MediaTypes;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -29,10 +33,21 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @Tag(name = "User Management", description = "API для управления пользователями")
 public class UserController {
 
-    private final UserService userService;
+    private static final int MAX_SUGGESTIONS = 50;
 
-    public UserController(UserService userService) {
+    private final UserService userService;
+    private final UserStatsService userStatsService;
+    private final UserNameIndex userNameIndex;
+    private final UserCollectionWriter collectionWriter;
+
+    public UserController(UserService userService,
+                          UserStatsService userStatsService,
+                          UserNameIndex userNameIndex,
+                          UserCollectionWriter collectionWriter) {
         this.userService = userService;
+        this.userStatsService = userStatsService;
+        this.userNameIndex = userNameIndex;
+        this.collectionWriter = collectionWriter;
     }
 
     @PostMapping
@@ -46,13 +61,15 @@ public class UserController {
             @ApiResponse(responseCode = "400", description = "Некорректные данные пользователя"),
             @ApiResponse(responseCode = "409", description = "Пользователь с таким email уже существует")
     })
-    public ResponseEntity<EntityModel<UserDto>> createUser(
+    public ResponseEntity<?> createUser(
             @Parameter(description = "Данные для создания пользователя", required = true)
-            @Valid @RequestBody CreateUserDto createUserDto) {
+            @Valid @RequestBody CreateUserDto createUserDto,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         UserDto userDto = userService.createUser(createUserDto);
-        EntityModel<UserDto> userModel = EntityModel.of(userDto);
-        addUserLinks(userModel, userDto.getId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(userModel);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(toRepresentation(userDto, accept));
     }
 
     @GetMapping("/{id}")
@@ -65,13 +82,36 @@ public class UserController {
                     content = @Content(schema = @Schema(implementation = UserDto.class))),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
-    public ResponseEntity<EntityModel<UserDto>> getUserById(
+    public ResponseEntity<?> getUserById(
             @Parameter(description = "ID пользователя", required = true, example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         UserDto userDto = userService.getUserById(id);
-        EntityModel<UserDto> userModel = EntityModel.of(userDto);
-        addUserLinks(userModel, id);
-        return ResponseEntity.ok(userModel);
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(toRepresentation(userDto, accept));
+    }
+
+    @GetMapping("/by-email/{email}")
+    @Operation(
+            summary = "Получить пользователя по email",
+            description = "Возвращает пользователя по email без учета регистра и пробелов по краям"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пользователь найден",
+                    content = @Content(schema = @Schema(implementation = UserDto.class))),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    })
+    public ResponseEntity<?> getUserByEmail(
+            @Parameter(description = "Email пользователя", required = true, example = "john@example.com")
+            @PathVariable String email,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        UserDto userDto = userService.getUserByEmail(email);
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(toRepresentation(userDto, accept));
     }
 
     @GetMapping
@@ -80,26 +120,60 @@ public class UserController {
             description = "Возвращает список всех пользователей в системе"
     )
     @ApiResponse(responseCode = "200", description = "Список пользователей успешно получен")
-    public ResponseEntity<CollectionModel<EntityModel<UserDto>>> getAllUsers() {
-        List<UserDto> users = userService.getAllUsers();
-        
-        List<EntityModel<UserDto>> userModels = users.stream()
-                .map(userDto -> {
-                    EntityModel<UserDto> model = EntityModel.of(userDto);
-                    addUserLinks(model, userDto.getId());
-                    return model;
-                })
-                .collect(Collectors.toList());
-        
-        CollectionModel<EntityModel<UserDto>> collectionModel = CollectionModel.of(userModels);
-
-        Link selfLink = linkTo(methodOn(UserController.class).getAllUsers()).withSelfRel();
-        collectionModel.add(selfLink);
-
-        Link createLink = linkTo(methodOn(UserController.class).createUser(null)).withRel("create");
-        collectionModel.add(createLink);
-        
-        return ResponseEntity.ok(collectionModel);
+    @RateLimited(RateLimitTier.EXPENSIVE)
+    @RequestTimeout(millis = 15000)
+    public ResponseEntity<StreamingResponseBody> getAllUsers(
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType plainJson = UserMediaTypes.plainJsonRequested(accept);
+        if (plainJson != null) {
+            StreamingResponseBody body = out -> userService.streamAllUsers(
+                    users -> collectionWriter.writePlain(users, out));
+            return ResponseEntity.ok()
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .contentType(plainJson)
+                    .body(body);
+        }
+
+        String collectionHref = linkTo(UserController.class).toUri().toString();
+        StreamingResponseBody body = out -> userService.streamAllUsers(
+                users -> collectionWriter.writeHal(users, collectionHref, out));
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(MediaTypes.HAL_JSON)
+                .body(body);
+    }
+
+    @GetMapping("/stats")
+    @Operation(
+            summary = "Получить статистику пользователей",
+            description = "Возвращает общее количество пользователей, распределение по возрасту и регистрации по дням"
+    )
+    @ApiResponse(responseCode = "200", description = "Статистика успешно получена",
+            content = @Content(schema = @Schema(implementation = UserStatsDto.class)))
+    public ResponseEntity<UserStatsDto> getUserStats() {
+        return ResponseEntity.ok(userStatsService.getStats());
+    }
+
+    @GetMapping("/suggest")
+    @Operation(
+            summary = "Подсказки по имени пользователя",
+            description = "Возвращает пользователей, имя которых начинается с указанного префикса (без учета регистра)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Подсказки успешно получены"),
+            @ApiResponse(responseCode = "400", description = "Пустой префикс")
+    })
+    public ResponseEntity<List<UserSuggestionDto>> suggestUsers(
+            @Parameter(description = "Начало имени пользователя", required = true, example = "Ив")
+            @RequestParam String prefix,
+            @Parameter(description = "Максимальное количество подсказок", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        if (prefix.isBlank()) {
+            throw new IllegalArgumentException("Prefix must not be blank");
+        }
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return ResponseEntity.ok(userNameIndex.suggest(prefix.trim(), boundedLimit));
     }
 
     @PutMapping("/{id}")
@@ -114,18 +188,20 @@ public class UserController {
             @ApiResponse(responseCode = "404", description = "Пользователь не найден"),
             @ApiResponse(responseCode = "409", description = "Email уже используется другим пользователем")
     })
-    public ResponseEntity<EntityModel<UserDto>> updateUser(
+    public ResponseEntity<?> updateUser(
             @Parameter(description = "ID пользователя", required = true, example = "1")
             @PathVariable Long id,
             @Parameter(description = "Данные для обновления пользователя", required = true)
-            @Valid @RequestBody UpdateUserDto updateUserDto) {
+            @Valid @RequestBody UpdateUserDto updateUserDto,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         if (updateUserDto.isEmpty()) {
             throw new IllegalArgumentException("At least one field must be provided for update");
         }
         UserDto userDto = userService.updateUser(id, updateUserDto);
-        EntityModel<UserDto> userModel = EntityModel.of(userDto);
-        addUserLinks(userModel, id);
-        return ResponseEntity.ok(userModel);
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(toRepresentation(userDto, accept));
     }
 
     @DeleteMapping("/{id}")
@@ -144,15 +220,24 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    private Object toRepresentation(UserDto userDto, String accept) {
+        if (UserMediaTypes.plainJsonRequested(accept) != null) {
+            return userDto;
+        }
+        EntityModel<UserDto> userModel = EntityModel.of(userDto);
+        addUserLinks(userModel, userDto.getId());
+        return userModel;
+    }
+
     private void addUserLinks(EntityModel<UserDto> model, Long userId) {
 
-        Link selfLink = linkTo(methodOn(UserController.class).getUserById(userId)).withSelfRel();
+        Link selfLink = linkTo(methodOn(UserController.class).getUserById(userId, null)).withSelfRel();
         model.add(selfLink);
 
-        Link collectionLink = linkTo(methodOn(UserController.class).getAllUsers()).withRel("users");
+        Link collectionLink = linkTo(methodOn(UserController.class).getAllUsers(null)).withRel("users");
         model.add(collectionLink);
 
-        Link updateLink = linkTo(methodOn(UserController.class).updateUser(userId, null)).withRel("update");
+        Link updateLink = linkTo(methodOn(UserController.class).updateUser(userId, null, null)).withRel("update");
         model.add(updateLink);
 
         Link deleteLink = linkTo(methodOn(UserController.class).deleteUser(userId)).withRel("delete");
@@ -0,0 +1,49 @@
+package org.example.controller;
+
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+final class UserMediaTypes {
+
+    static final String USER_JSON_VALUE = "application/vnd.example.user+json";
+    static final MediaType USER_JSON = MediaType.parseMediaType(USER_JSON_VALUE);
+
+    private UserMediaTypes() {
+    }
+
+    /**
+     * Returns the plain JSON media type the client asked for, or {@code null} when the
+     * response should stay HAL. HAL wins whenever it is listed explicitly, and wildcard
+     * or missing Accept headers keep the HAL default.
+     */
+    static MediaType plainJsonRequested(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return null;
+        }
+        List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+
+        MediaType plain = null;
+        for (MediaType type : acceptedTypes) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (MediaTypes.HAL_JSON.equalsTypeAndSubtype(type)) {
+                return null;
+            }
+            if (plain == null && (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(type)
+                    || USER_JSON.equalsTypeAndSubtype(type))) {
+                plain = new MediaType(type.getType(), type.getSubtype());
+            }
+        }
+        return plain;
+    }
+}
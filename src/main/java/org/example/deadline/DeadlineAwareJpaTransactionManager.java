@@ -0,0 +1,49 @@
+package org.example.deadline;
+
+import org.example.exception.DeadlineExceededException;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DelegatingTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounds every transaction started during a request by the remaining request deadline.
+ * Hibernate applies the transaction timeout to each JDBC statement it executes, and
+ * Spring passes the remaining time to queries as the {@code jakarta.persistence.query.timeout}
+ * hint, so slow queries are cancelled by the database instead of holding the connection.
+ */
+public class DeadlineAwareJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            super.doBegin(transaction, definition);
+            return;
+        }
+
+        long remainingMillis = deadline.remainingMillis();
+        if (remainingMillis <= 0) {
+            throw new DeadlineExceededException("Request deadline exceeded before starting a transaction");
+        }
+        int remainingSeconds = (int) Math.max(1, (remainingMillis + 999) / 1000);
+        if (definition.getTimeout() != TransactionDefinition.TIMEOUT_DEFAULT && definition.getTimeout() <= remainingSeconds) {
+            super.doBegin(transaction, definition);
+            return;
+        }
+
+        super.doBegin(transaction, new DelegatingTransactionDefinition(definition) {
+            @Override
+            public int getTimeout() {
+                return remainingSeconds;
+            }
+        });
+        // statement timeouts are whole seconds; query hints can use the exact budget
+        EntityManagerHolder holder =
+                (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        if (holder != null) {
+            holder.setTimeoutInMillis(remainingMillis);
+        }
+    }
+}
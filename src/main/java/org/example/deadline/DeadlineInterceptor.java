@@ -0,0 +1,68 @@
+package org.example.deadline;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.exception.DeadlineExceededException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Starts the request deadline: the client's {@code X-Request-Timeout} (milliseconds,
+ * capped at the configured maximum), otherwise the handler's {@link RequestTimeout},
+ * otherwise the default. The deadline lives in a thread-local, so it is cleared when the
+ * request completes and also when the handler goes async and the thread is released.
+ */
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final long defaultTimeoutMillis;
+    private final long maxTimeoutMillis;
+
+    public DeadlineInterceptor(long defaultTimeoutMillis, long maxTimeoutMillis) {
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        long timeoutMillis = Math.min(timeoutMillis(request, handler), maxTimeoutMillis);
+        if (timeoutMillis <= 0) {
+            throw new DeadlineExceededException("Request deadline already expired");
+        }
+        RequestDeadline.set(RequestDeadline.after(timeoutMillis));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+
+    private long timeoutMillis(HttpServletRequest request, Object handler) {
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                return Long.parseLong(header.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(TIMEOUT_HEADER + " must be a number of milliseconds");
+            }
+        }
+        if (handler instanceof HandlerMethod handlerMethod) {
+            RequestTimeout requestTimeout = handlerMethod.getMethodAnnotation(RequestTimeout.class);
+            if (requestTimeout != null) {
+                return requestTimeout.millis();
+            }
+        }
+        return defaultTimeoutMillis;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.deadline;
+
+import org.example.exception.DeadlineExceededException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of the request being handled on the current thread. Set by
+ * {@link DeadlineInterceptor} and read by the code that issues blocking calls, so the
+ * database and Kafka never wait longer than the caller is willing to.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private RequestDeadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static RequestDeadline after(long timeoutMillis) {
+        return new RequestDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    /**
+     * @return the deadline of the current request, or {@code null} outside a request
+     */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    static void set(RequestDeadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the remaining budget of the current request capped at {@code fallbackMillis},
+     * or {@code fallbackMillis} when there is no request deadline
+     */
+    public static long remainingMillisOr(long fallbackMillis) {
+        RequestDeadline deadline = CURRENT.get();
+        return deadline != null ? Math.min(deadline.remainingMillis(), fallbackMillis) : fallbackMillis;
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    public void checkNotExpired(String operation) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Request deadline exceeded before " + operation);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Агрегированная статистика по пользователям")
+public class UserStatsDto {
+    @Schema(description = "Общее количество пользователей", example = "1250")
+    private long totalCount;
+
+    @Schema(description = "Распределение пользователей по возрастным группам")
+    private Map<String, Long> ageHistogram;
+
+    @Schema(description = "Количество регистраций по дням")
+    private Map<String, Long> createdPerDay;
+
+    @Schema(description = "Время последней сверки с базой данных", example = "2024-01-15T10:30:00")
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,18 @@
+package org.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Подсказка для автодополнения имени пользователя")
+public class UserSuggestionDto {
+    @Schema(description = "Уникальный идентификатор пользователя", example = "1")
+    private Long id;
+
+    @Schema(description = "Имя пользователя", example = "Иван Иванов")
+    private String name;
+}
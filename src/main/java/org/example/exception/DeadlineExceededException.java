@@ -0,0 +1,7 @@
+package org.example.exception;
+
+public class DeadlineExceededException extends DomainException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
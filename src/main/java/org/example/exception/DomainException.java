@@ -0,0 +1,12 @@
+package org.example.exception;
+
+/**
+ * Base class for expected, client-caused failures. These are thrown on hot paths
+ * (404 probing, duplicate sign-ups, throttling) and always mapped to a response,
+ * so the stack trace is never used and is not captured.
+ */
+public abstract class DomainException extends RuntimeException {
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
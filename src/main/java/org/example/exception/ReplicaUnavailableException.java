@@ -0,0 +1,7 @@
+package org.example.exception;
+
+public class ReplicaUnavailableException extends DomainException {
+    public ReplicaUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,12 +1,12 @@
 package org.example.exception;
 
-public class UserAlreadyExistsException extends RuntimeException {
+public class UserAlreadyExistsException extends DomainException {
     public UserAlreadyExistsException() {
-        super();
+        super("User already exists");
     }
 
     public UserAlreadyExistsException(String email) {
-        super();
+        super("User with email " + email + " already exists");
     }
 
 }
@@ -0,0 +1,49 @@
+package org.example.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Tracks write requests by idempotency key. The first request for a key acquires it
+ * and later records its response; duplicates either get that response or, while it is
+ * still being produced, wait for it.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Acquires {@code key} for a new request, or waits up to {@code maxWait} for the
+     * response of the request that holds it. An acquired outcome carries the owner token
+     * to pass to {@link #complete} or {@link #abandon}.
+     */
+    Outcome begin(String key, String fingerprint, Duration maxWait);
+
+    /**
+     * @return false if {@code owner} no longer holds the key, so the response was not stored
+     */
+    boolean complete(String key, String owner, StoredResponse response);
+
+    /**
+     * Releases a key whose request failed in a way a retry may fix. Does nothing if
+     * {@code owner} no longer holds it.
+     */
+    void abandon(String key, String owner);
+
+    enum Status {
+        ACQUIRED,
+        REPLAY,
+        IN_PROGRESS,
+        MISMATCH
+    }
+
+    record Outcome(Status status, StoredResponse response, String owner) {
+        static final Outcome IN_PROGRESS = new Outcome(Status.IN_PROGRESS, null, null);
+        static final Outcome MISMATCH = new Outcome(Status.MISMATCH, null, null);
+
+        static Outcome acquired(String owner) {
+            return new Outcome(Status.ACQUIRED, null, owner);
+        }
+
+        static Outcome replay(StoredResponse response) {
+            return new Outcome(Status.REPLAY, response, null);
+        }
+    }
+}
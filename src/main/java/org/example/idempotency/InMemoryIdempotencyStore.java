@@ -0,0 +1,144 @@
+package org.example.idempotency;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-instance store. Duplicates wait on the future of the in-flight request, and
+ * completed entries are dropped after their TTL or, oldest first, when the store is full.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() walks the whole queue
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    public InMemoryIdempotencyStore(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    @Override
+    public Outcome begin(String key, String fingerprint, Duration maxWait) {
+        long waitUntil = System.nanoTime() + maxWait.toNanos();
+        while (true) {
+            Entry entry = new Entry(fingerprint, UUID.randomUUID().toString());
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                insertionOrder.add(key);
+                queued.incrementAndGet();
+                evictIfFull();
+                return Outcome.acquired(entry.owner);
+            }
+            if (existing.isExpired(System.currentTimeMillis())) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                return Outcome.MISMATCH;
+            }
+            try {
+                StoredResponse response = existing.response.get(
+                        Math.max(0, waitUntil - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (response != null) {
+                    return Outcome.replay(response);
+                }
+                // the first request was abandoned, so this one may take the key over
+            } catch (TimeoutException e) {
+                return Outcome.IN_PROGRESS;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Outcome.IN_PROGRESS;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Override
+    public boolean complete(String key, String owner, StoredResponse response) {
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.owner.equals(owner) || entry.response.isDone()) {
+            return false;
+        }
+        entry.expiresAtMillis = System.currentTimeMillis() + ttlMillis;
+        return entry.response.complete(response);
+    }
+
+    @Override
+    public void abandon(String key, String owner) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.owner.equals(owner) && !entry.response.isDone() && entries.remove(key, entry)) {
+            entry.response.complete(null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        insertionOrder.removeIf(key -> {
+            boolean stale = !entries.containsKey(key);
+            if (stale) {
+                queued.decrementAndGet();
+            }
+            return stale;
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        // in-flight entries are never evicted, they go back to the end of the queue
+        for (int attempts = queued.get(); entries.size() > maxEntries && attempts > 0; attempts--) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            Entry entry = entries.get(oldest);
+            if (entry != null && !entry.response.isDone()) {
+                insertionOrder.add(oldest);
+                continue;
+            }
+            queued.decrementAndGet();
+            if (entry != null) {
+                entries.remove(oldest, entry);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final String owner;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        private volatile long expiresAtMillis = Long.MAX_VALUE;
+
+        private Entry(String fingerprint, String owner) {
+            this.fingerprint = fingerprint;
+            this.owner = owner;
+        }
+
+        private boolean isExpired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+}
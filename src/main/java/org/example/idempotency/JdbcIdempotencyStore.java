@@ -0,0 +1,141 @@
+package org.example.idempotency;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store shared by all instances through the idempotency_keys table. The first request
+ * wins the primary key insert; duplicates on any instance poll the row until the
+ * response is recorded. An in-flight row holds a short lease so a crashed instance
+ * cannot block a key for the whole TTL; the instance running the request renews it
+ * until the response is recorded. Every row carries the token of its owner, so a
+ * request whose lease lapsed and was taken over cannot overwrite or release the key.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private static final String ACQUIRE =
+            "INSERT INTO idempotency_keys (idempotency_key, fingerprint, owner_token, created_at, expires_at) "
+                    + "VALUES (?, ?, ?, now(), now() + make_interval(secs => ?)) "
+                    + "ON CONFLICT (idempotency_key) DO NOTHING";
+    private static final String LOOKUP =
+            "SELECT fingerprint, response_status, content_type, location, body, expires_at < now() AS expired "
+                    + "FROM idempotency_keys WHERE idempotency_key = ?";
+    private static final String DELETE_EXPIRED_KEY =
+            "DELETE FROM idempotency_keys WHERE idempotency_key = ? AND expires_at < now()";
+    private static final String COMPLETE =
+            "UPDATE idempotency_keys SET response_status = ?, content_type = ?, location = ?, body = ?, "
+                    + "expires_at = now() + make_interval(secs => ?) "
+                    + "WHERE idempotency_key = ? AND owner_token = ? AND response_status IS NULL";
+    private static final String ABANDON =
+            "DELETE FROM idempotency_keys "
+                    + "WHERE idempotency_key = ? AND owner_token = ? AND response_status IS NULL";
+    private static final String RENEW =
+            "UPDATE idempotency_keys SET expires_at = now() + make_interval(secs => ?) "
+                    + "WHERE idempotency_key = ? AND owner_token = ? AND response_status IS NULL";
+    private static final String PURGE = "DELETE FROM idempotency_keys WHERE expires_at < now()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlSeconds;
+    private final double leaseSeconds;
+    private final Map<String, String> held = new ConcurrentHashMap<>();
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, Duration ttl, Duration lease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlSeconds = ttl.toSeconds();
+        this.leaseSeconds = lease.toMillis() / 1000.0;
+    }
+
+    @Override
+    public Outcome begin(String key, String fingerprint, Duration maxWait) {
+        long waitUntil = System.nanoTime() + maxWait.toNanos();
+        while (true) {
+            String owner = UUID.randomUUID().toString();
+            if (jdbcTemplate.update(ACQUIRE, key, fingerprint, owner, leaseSeconds) == 1) {
+                held.put(key, owner);
+                return Outcome.acquired(owner);
+            }
+            List<Row> rows = jdbcTemplate.query(LOOKUP, (resultSet, rowNum) -> new Row(
+                    resultSet.getString("fingerprint"),
+                    (Integer) resultSet.getObject("response_status"),
+                    resultSet.getString("content_type"),
+                    resultSet.getString("location"),
+                    resultSet.getBytes("body"),
+                    resultSet.getBoolean("expired")), key);
+            if (rows.isEmpty()) {
+                continue;
+            }
+            Row row = rows.get(0);
+            if (row.expired()) {
+                jdbcTemplate.update(DELETE_EXPIRED_KEY, key);
+                continue;
+            }
+            if (!row.fingerprint().equals(fingerprint)) {
+                return Outcome.MISMATCH;
+            }
+            if (row.status() != null) {
+                return Outcome.replay(new StoredResponse(row.status(), row.contentType(), row.location(), row.body()));
+            }
+            if (System.nanoTime() - waitUntil >= 0) {
+                return Outcome.IN_PROGRESS;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Outcome.IN_PROGRESS;
+            }
+        }
+    }
+
+    @Override
+    public boolean complete(String key, String owner, StoredResponse response) {
+        held.remove(key, owner);
+        return jdbcTemplate.update(COMPLETE, response.status(), response.contentType(), response.location(),
+                response.body(), ttlSeconds, key, owner) == 1;
+    }
+
+    @Override
+    public void abandon(String key, String owner) {
+        held.remove(key, owner);
+        jdbcTemplate.update(ABANDON, key, owner);
+    }
+
+    /**
+     * Extends the lease of every key this instance is still working on. The interval has
+     * to stay well below the lease, or a slow request loses its key to a duplicate.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.renew-interval-ms:10000}")
+    public void renewLeases() {
+        List<Map.Entry<String, String>> keys = List.copyOf(held.entrySet());
+        if (keys.isEmpty()) {
+            return;
+        }
+        int[] renewed = jdbcTemplate.batchUpdate(RENEW, keys.stream()
+                .map(entry -> new Object[] {leaseSeconds, entry.getKey(), entry.getValue()})
+                .toList());
+        for (int i = 0; i < renewed.length; i++) {
+            if (renewed[i] == 0) {
+                // the lease lapsed and another request took the key, completing it will fail
+                held.remove(keys.get(i).getKey(), keys.get(i).getValue());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.sweep-interval-ms:60000}")
+    public void purgeExpired() {
+        jdbcTemplate.update(PURGE);
+    }
+
+    private record Row(String fingerprint, Integer status, String contentType, String location, byte[] body,
+                       boolean expired) {
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.idempotency;
+
+/**
+ * Response recorded for an idempotency key and replayed verbatim to retries.
+ */
+public record StoredResponse(int status, String contentType, String location, byte[] body) {
+}
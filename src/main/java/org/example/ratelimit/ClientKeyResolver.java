@@ -0,0 +1,28 @@
+package org.example.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.StringUtils;
+
+import java.util.Set;
+
+/**
+ * Identifies the client a request is accounted to. Only registered API keys identify a
+ * client of their own; requests without one of them belong to their remote address, so
+ * an invented key cannot reset a rate budget or open a fresh idempotency scope.
+ */
+public class ClientKeyResolver {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private final Set<String> apiKeys;
+
+    public ClientKeyResolver(Set<String> apiKeys) {
+        this.apiKeys = Set.copyOf(apiKeys);
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return StringUtils.hasText(apiKey) && apiKeys.contains(apiKey)
+                ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.ratelimit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ClientRateLimiter {
+
+    private static final int LATENCY_SMOOTHING = 10;
+    private static final int DEFAULT_MAX_CLIENTS = 100_000;
+
+    private final Map<RateLimitTier, Budget> budgets = new EnumMap<>(RateLimitTier.class);
+    private final boolean adaptive;
+    private final long targetLatencyNanos;
+    private final double minFactor;
+
+    private final AtomicLong latencyEwmaNanos = new AtomicLong();
+    private volatile double factor = 1.0;
+    private int maxClients = DEFAULT_MAX_CLIENTS;
+
+    public ClientRateLimiter(boolean adaptive, long targetLatencyMillis, double minFactor) {
+        this.adaptive = adaptive;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.minFactor = minFactor;
+    }
+
+    public ClientRateLimiter budget(RateLimitTier tier, double requestsPerSecond, int burst) {
+        budgets.put(tier, new Budget((long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond), burst));
+        return this;
+    }
+
+    /**
+     * Caps the buckets tracked per tier. Once the cap is reached and no idle bucket can
+     * be dropped, new clients share a single overflow bucket instead of growing the map.
+     */
+    public ClientRateLimiter maxClients(int maxClients) {
+        this.maxClients = maxClients;
+        return this;
+    }
+
+    /**
+     * @return 0 if the request is admitted, otherwise the nanos until the client may retry
+     */
+    public long tryAcquire(String clientKey, RateLimitTier tier) {
+        Budget budget = budgets.get(tier);
+        if (budget == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = budget.buckets.get(clientKey);
+        if (bucket == null) {
+            if (budget.buckets.size() >= maxClients) {
+                budget.evictFull(now);
+            }
+            bucket = budget.buckets.size() < maxClients
+                    ? budget.buckets.computeIfAbsent(clientKey, key -> new TokenBucket(now))
+                    : budget.overflow;
+        }
+        long interval = (long) (budget.intervalNanos / factor);
+        return bucket.tryAcquire(now, interval, budget.burst);
+    }
+
+    /**
+     * Feeds the adaptive mode with a database latency sample. Once the smoothed latency
+     * exceeds the target, every budget is scaled down proportionally, but never below
+     * {@code minFactor}.
+     */
+    public void recordLatency(long nanos) {
+        long previous;
+        long next;
+        do {
+            previous = latencyEwmaNanos.get();
+            next = previous == 0 ? nanos : previous + (nanos - previous) / LATENCY_SMOOTHING;
+        } while (!latencyEwmaNanos.compareAndSet(previous, next));
+
+        if (adaptive && next > 0) {
+            factor = Math.max(minFactor, Math.min(1.0, (double) targetLatencyNanos / next));
+        }
+    }
+
+    public double getFactor() {
+        return factor;
+    }
+
+    public long getLatencyEwmaNanos() {
+        return latencyEwmaNanos.get();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    public void evictFullBuckets() {
+        long now = System.nanoTime();
+        for (Budget budget : budgets.values()) {
+            budget.evictFull(now);
+        }
+    }
+
+    int trackedClients(RateLimitTier tier) {
+        Budget budget = budgets.get(tier);
+        return budget != null ? budget.buckets.size() : 0;
+    }
+
+    private static final class Budget {
+        private final long intervalNanos;
+        private final int burst;
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final TokenBucket overflow = new TokenBucket(System.nanoTime());
+
+        private Budget(long intervalNanos, int burst) {
+            this.intervalNanos = intervalNanos;
+            this.burst = burst;
+        }
+
+        private void evictFull(long now) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.ratelimit;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.exception.RateLimitExceededException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final ClientRateLimiter rateLimiter;
+    private final ClientKeyResolver clientKeyResolver;
+
+    public RateLimitInterceptor(ClientRateLimiter rateLimiter, ClientKeyResolver clientKeyResolver) {
+        this.rateLimiter = rateLimiter;
+        this.clientKeyResolver = clientKeyResolver;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // streamed responses come back through an async dispatch that was already admitted
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+        RateLimitTier tier = rateLimited != null ? rateLimited.value() : RateLimitTier.CHEAP;
+
+        long waitNanos = rateLimiter.tryAcquire(clientKeyResolver.resolve(request), tier);
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+        }
+        return true;
+    }
+}
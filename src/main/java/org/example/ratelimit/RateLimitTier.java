@@ -0,0 +1,6 @@
+package org.example.ratelimit;
+
+public enum RateLimitTier {
+    CHEAP,
+    EXPENSIVE
+}
@@ -0,0 +1,16 @@
+package org.example.ratelimit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the rate limit budget for a handler method. Handlers without this
+ * annotation are charged against the {@link RateLimitTier#CHEAP} budget.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    RateLimitTier value();
+}
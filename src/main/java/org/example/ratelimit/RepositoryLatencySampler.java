@@ -0,0 +1,44 @@
+package org.example.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds the adaptive rate limiter with the mean latency of repository calls
+ * ({@code spring.data.repository.invocations}) since the previous sample. Budgets then
+ * follow database latency, not how long clients take to read streamed responses.
+ */
+public class RepositoryLatencySampler {
+
+    static final String REPOSITORY_TIMER = "spring.data.repository.invocations";
+
+    private final MeterRegistry meterRegistry;
+    private final ClientRateLimiter rateLimiter;
+
+    private long lastCount;
+    private double lastTotalNanos;
+
+    public RepositoryLatencySampler(MeterRegistry meterRegistry, ClientRateLimiter rateLimiter) {
+        this.meterRegistry = meterRegistry;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.adaptive.sample-interval-ms:1000}")
+    public synchronized void sample() {
+        long count = 0;
+        double totalNanos = 0;
+        for (Timer timer : meterRegistry.find(REPOSITORY_TIMER).timers()) {
+            count += timer.count();
+            totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+        }
+        long calls = count - lastCount;
+        if (calls > 0) {
+            rateLimiter.recordLatency((long) ((totalNanos - lastTotalNanos) / calls));
+        }
+        lastCount = count;
+        lastTotalNanos = totalNanos;
+    }
+}
@@ -1,10 +1,51 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.User;
+import org.example.dto.UserDto;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    boolean existsByEmail(String email);
+    /**
+     * Resolved against the user_emails lookup table, which holds the only globally unique
+     * email index now that users is hash-partitioned by id. Expects a normalized email.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_emails WHERE email = :email)", nativeQuery = true)
+    boolean existsByEmail(@Param("email") String email);
+
+    /**
+     * Single primary-key probe on user_emails; the row itself is then read by id so
+     * the lookup can be served from the user cache. Expects a normalized email.
+     */
+    @Query(value = "SELECT user_id FROM user_emails WHERE email = :email", nativeQuery = true)
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    /**
+     * All users as DTOs, read through a server-side cursor. Nothing is attached to the
+     * persistence context, so memory stays flat however large the table is. The stream
+     * must be consumed and closed inside a read-only transaction, as pgjdbc only honours
+     * the fetch size with autocommit off.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new org.example.dto.UserDto(u.id, u.name, u.email, u.age, u.createdAt) FROM User u ORDER BY u.id")
+    Stream<UserDto> streamAll();
+
+    /**
+     * Soft-deletes in a single statement and returns the row as it was, so the caller
+     * needs no prior SELECT. Rows are hard-deleted later by UserPurger.
+     */
+    @Transactional
+    @Query(value = "UPDATE users SET deleted_at = now(), updated_at = now() "
+            + "WHERE id = :id AND deleted_at IS NULL RETURNING *", nativeQuery = true)
+    Optional<User> softDeleteById(@Param("id") Long id);
 }
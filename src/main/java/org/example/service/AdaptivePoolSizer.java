@@ -0,0 +1,141 @@
+package org.example.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resizes the Hikari pool within fixed bounds. Each interval compares the mean time
+ * callers waited for a connection with the mean repository call time
+ * ({@code spring.data.repository.invocations}): waiting longer than a fraction of the
+ * work itself means the pool is the bottleneck, while near-zero waits with idle
+ * connections mean it can give capacity back to the database. The configured
+ * {@code minimumIdle} is lowered with the pool and restored as it grows back.
+ */
+@Component
+@ConditionalOnProperty(name = "app.datasource.adaptive.enabled", havingValue = "true")
+public class AdaptivePoolSizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    private static final String REPOSITORY_TIMER = "spring.data.repository.invocations";
+
+    private final HikariDataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final int minSize;
+    private final int maxSize;
+    private final int step;
+    private final double growWaitRatio;
+    private final double shrinkWaitRatio;
+    private final int configuredMinimumIdle;
+
+    private TimerSample lastAcquire = TimerSample.EMPTY;
+    private TimerSample lastQuery = TimerSample.EMPTY;
+
+    public AdaptivePoolSizer(DataSource dataSource,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.datasource.adaptive.min-size:5}") int minSize,
+                             @Value("${app.datasource.adaptive.max-size:30}") int maxSize,
+                             @Value("${app.datasource.adaptive.step:2}") int step,
+                             @Value("${app.datasource.adaptive.grow-wait-ratio:0.5}") double growWaitRatio,
+                             @Value("${app.datasource.adaptive.shrink-wait-ratio:0.05}") double shrinkWaitRatio) {
+        if (minSize < 1 || maxSize < minSize || step < 1) {
+            throw new IllegalArgumentException("Invalid adaptive pool bounds: min=" + minSize + ", max=" + maxSize
+                    + ", step=" + step);
+        }
+        this.dataSource = unwrap(dataSource);
+        this.meterRegistry = meterRegistry;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.step = step;
+        this.growWaitRatio = growWaitRatio;
+        this.shrinkWaitRatio = shrinkWaitRatio;
+        this.configuredMinimumIdle = this.dataSource.getMinimumIdle();
+    }
+
+    @Scheduled(initialDelayString = "${app.datasource.adaptive.interval-ms:10000}",
+            fixedDelayString = "${app.datasource.adaptive.interval-ms:10000}")
+    public synchronized void adjust() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+        TimerSample acquire = TimerSample.of(meterRegistry.find("hikaricp.connections.acquire")
+                .tag("pool", dataSource.getPoolName()).timers());
+        TimerSample query = TimerSample.of(meterRegistry.find(REPOSITORY_TIMER).timers());
+        double waitMillis = acquire.meanMillisSince(lastAcquire);
+        double queryMillis = query.meanMillisSince(lastQuery);
+        lastAcquire = acquire;
+        lastQuery = query;
+
+        int current = dataSource.getMaximumPoolSize();
+        int target = nextSize(current, waitMillis, queryMillis, pool.getThreadsAwaitingConnection(),
+                pool.getIdleConnections());
+        if (target != current) {
+            logger.info("Resizing pool {} from {} to {} (wait {} ms, repository call {} ms)",
+                    dataSource.getPoolName(), current, target,
+                    String.format("%.2f", waitMillis), String.format("%.2f", queryMillis));
+            resize(target);
+        }
+    }
+
+    int nextSize(int current, double waitMillis, double queryMillis, int pending, int idle) {
+        if (waitMillis > growWaitRatio * queryMillis) {
+            return Math.min(maxSize, current + step);
+        }
+        if (waitMillis <= shrinkWaitRatio * queryMillis && pending == 0 && idle >= step) {
+            return Math.max(minSize, current - step);
+        }
+        return Math.max(minSize, Math.min(maxSize, current));
+    }
+
+    void resize(int target) {
+        int minimumIdle = Math.min(configuredMinimumIdle, target);
+        if (target < dataSource.getMaximumPoolSize()) {
+            dataSource.setMinimumIdle(minimumIdle);
+            dataSource.setMaximumPoolSize(target);
+        } else {
+            dataSource.setMaximumPoolSize(target);
+            dataSource.setMinimumIdle(minimumIdle);
+        }
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Adaptive pool sizing requires a Hikari data source", e);
+        }
+    }
+
+    private record TimerSample(long count, double totalMillis) {
+        static final TimerSample EMPTY = new TimerSample(0, 0);
+
+        static TimerSample of(Collection<Timer> timers) {
+            long count = 0;
+            double totalMillis = 0;
+            for (Timer timer : timers) {
+                count += timer.count();
+                totalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+            }
+            return new TimerSample(count, totalMillis);
+        }
+
+        double meanMillisSince(TimerSample previous) {
+            long calls = count - previous.count;
+            return calls > 0 ? (totalMillis - previous.totalMillis) / calls : 0;
+        }
+    }
+}
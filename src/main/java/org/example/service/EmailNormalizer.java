@@ -0,0 +1,17 @@
+package org.example.service;
+
+import java.util.Locale;
+
+/**
+ * Canonical form of an email address used for uniqueness and lookups. Mirrors the
+ * {@code normalize_email} database function that maintains the user_emails index.
+ */
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {
+    }
+
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,304 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.dto.UserEventDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only local spool for user events that could not be handed to Kafka.
+ * <p>
+ * Records live in fixed-size, memory-mapped segment files, so appending is a memory
+ * copy with no per-event syscall. Each record is {@code [int length][int crc32c][payload]};
+ * a zero length marks the unwritten tail of a segment. The read position is kept in a
+ * small mapped checkpoint file, and segments are deleted once fully committed.
+ * Appends never wait for the disk: mapped pages are written back by the OS, and
+ * {@link #sync()} forces them out from the replayer's thread.
+ */
+@Component
+public class EventSpool {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventSpool.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final int CHECKPOINT_BYTES = 16;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final int ZERO_CHUNK_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final MappedByteBuffer checkpoint;
+
+    private long headSegment;
+    private MappedByteBuffer head;
+    private int headPosition;
+    private final List<MappedByteBuffer> rolledUnsynced = new ArrayList<>();
+
+    private long readSegment;
+    private int readOffset;
+    private long mappedReadSegment = -1;
+    private MappedByteBuffer mappedRead;
+
+    public EventSpool(@Value("${app.kafka.spool.directory:spool}") String directory,
+                      @Value("${app.kafka.spool.segment-bytes:16777216}") int segmentBytes) {
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(this.directory);
+            this.checkpoint = map(this.directory.resolve("checkpoint"), CHECKPOINT_BYTES);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open event spool in " + directory, e);
+        }
+    }
+
+    public synchronized void append(String operation, String email) {
+        byte[] operationBytes = operation.getBytes(StandardCharsets.UTF_8);
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = 2 + operationBytes.length + 2 + emailBytes.length;
+        int recordLength = HEADER_BYTES + payloadLength;
+        if (recordLength > segmentBytes) {
+            throw new IllegalArgumentException("Event does not fit into a spool segment: " + recordLength + " bytes");
+        }
+        if (headPosition + recordLength > segmentBytes) {
+            roll();
+        }
+
+        int start = headPosition;
+        head.position(start + HEADER_BYTES);
+        head.putShort((short) operationBytes.length).put(operationBytes);
+        head.putShort((short) emailBytes.length).put(emailBytes);
+        head.putInt(start + 4, crc(head, start + HEADER_BYTES, payloadLength));
+        // length goes last so a torn write never looks like a complete record
+        head.putInt(start, payloadLength);
+        headPosition = start + recordLength;
+    }
+
+    public synchronized SpoolBatch read(int maxEvents) {
+        List<UserEventDto> events = new ArrayList<>(Math.min(maxEvents, 1024));
+        long segment = readSegment;
+        int offset = readOffset;
+
+        while (events.size() < maxEvents) {
+            ByteBuffer buffer = segment == headSegment ? head : mappedForRead(segment);
+            int limit = segment == headSegment ? headPosition : buffer != null ? segmentBytes : 0;
+            int length = offset + HEADER_BYTES <= limit ? buffer.getInt(offset) : 0;
+
+            boolean valid = length > 0 && offset + HEADER_BYTES + length <= limit
+                    && buffer.getInt(offset + 4) == crc(buffer, offset + HEADER_BYTES, length);
+            if (!valid) {
+                if (length != 0) {
+                    logger.warn("Skipping corrupt spool record in segment {} at offset {}", segment, offset);
+                }
+                if (segment == headSegment) {
+                    break;
+                }
+                segment++;
+                offset = 0;
+                continue;
+            }
+
+            events.add(decode(buffer, offset + HEADER_BYTES));
+            offset += HEADER_BYTES + length;
+        }
+        return new SpoolBatch(events, segment, offset);
+    }
+
+    public synchronized void commit(SpoolBatch batch) {
+        for (long segment = readSegment; segment < batch.segment(); segment++) {
+            deleteSegment(segment);
+        }
+        readSegment = batch.segment();
+        readOffset = batch.offset();
+        checkpoint.putLong(0, readSegment);
+        checkpoint.putLong(8, readOffset);
+    }
+
+    public synchronized boolean hasPending() {
+        return readSegment != headSegment || readOffset < headPosition;
+    }
+
+    public synchronized long segmentCount() {
+        return headSegment - readSegment + 1;
+    }
+
+    /**
+     * Forces segments and the checkpoint to disk. Only the buffer references are taken
+     * under the lock, so appends carry on while the pages are written.
+     */
+    public void sync() {
+        List<MappedByteBuffer> segments;
+        synchronized (this) {
+            segments = new ArrayList<>(rolledUnsynced);
+            segments.add(head);
+            rolledUnsynced.clear();
+        }
+        segments.forEach(MappedByteBuffer::force);
+        checkpoint.force();
+    }
+
+    @PreDestroy
+    public void flush() {
+        sync();
+    }
+
+    private void recover() throws IOException {
+        List<Long> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+
+        long checkpointSegment = checkpoint.getLong(0);
+        int checkpointOffset = (int) checkpoint.getLong(8);
+        if (segments.isEmpty()) {
+            headSegment = checkpointSegment;
+            head = map(segmentPath(headSegment), segmentBytes);
+            headPosition = 0;
+            readSegment = headSegment;
+            readOffset = 0;
+            return;
+        }
+
+        long firstSegment = segments.get(0);
+        if (checkpointSegment >= firstSegment) {
+            readSegment = checkpointSegment;
+            readOffset = checkpointOffset;
+        } else {
+            readSegment = firstSegment;
+            readOffset = 0;
+        }
+
+        headSegment = segments.get(segments.size() - 1);
+        head = map(segmentPath(headSegment), segmentBytes);
+        headPosition = 0;
+        while (headPosition + HEADER_BYTES <= segmentBytes) {
+            int length = head.getInt(headPosition);
+            if (length <= 0 || headPosition + HEADER_BYTES + length > segmentBytes
+                    || head.getInt(headPosition + 4) != crc(head, headPosition + HEADER_BYTES, length)) {
+                break;
+            }
+            headPosition += HEADER_BYTES + length;
+        }
+        clearTail();
+        if (headSegment == readSegment && readOffset > headPosition) {
+            readOffset = headPosition;
+        }
+    }
+
+    /**
+     * Zeroes a torn tail so it cannot be mistaken for records appended later. Only the
+     * range up to the last non-zero byte is written, which is usually a few bytes.
+     */
+    private void clearTail() {
+        int end = segmentBytes;
+        while (end - Long.BYTES >= headPosition && head.getLong(end - Long.BYTES) == 0) {
+            end -= Long.BYTES;
+        }
+        while (end > headPosition && head.get(end - 1) == 0) {
+            end--;
+        }
+        if (end == headPosition) {
+            return;
+        }
+        byte[] zeros = new byte[Math.min(end - headPosition, ZERO_CHUNK_BYTES)];
+        for (int position = headPosition; position < end; position += zeros.length) {
+            head.put(position, zeros, 0, Math.min(zeros.length, end - position));
+        }
+        logger.warn("Cleared {} bytes of torn spool tail in segment {}", end - headPosition, headSegment);
+    }
+
+    private void roll() {
+        rolledUnsynced.add(head);
+        headSegment++;
+        try {
+            head = map(segmentPath(headSegment), segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create spool segment " + headSegment, e);
+        }
+        headPosition = 0;
+    }
+
+    /**
+     * @return the segment mapped read-only, or {@code null} if its file no longer exists
+     */
+    private ByteBuffer mappedForRead(long segment) {
+        if (segment != mappedReadSegment) {
+            try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+                mappedRead = channel.map(FileChannel.MapMode.READ_ONLY, 0, segmentBytes);
+            } catch (NoSuchFileException e) {
+                logger.warn("Spool segment {} is missing, skipping it", segment);
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to map spool segment " + segment, e);
+            }
+            mappedReadSegment = segment;
+        }
+        return mappedRead;
+    }
+
+    private void deleteSegment(long segment) {
+        if (segment == mappedReadSegment) {
+            mappedRead = null;
+            mappedReadSegment = -1;
+        }
+        try {
+            Files.deleteIfExists(segmentPath(segment));
+        } catch (IOException e) {
+            logger.warn("Unable to delete spool segment {}: {}", segment, e.getMessage());
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static UserEventDto decode(ByteBuffer buffer, int offset) {
+        int operationLength = buffer.getShort(offset);
+        String operation = readString(buffer, offset + 2, operationLength);
+        int emailOffset = offset + 2 + operationLength;
+        int emailLength = buffer.getShort(emailOffset);
+        String email = readString(buffer, emailOffset + 2, emailLength);
+        return new UserEventDto(operation, email);
+    }
+
+    private static String readString(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static MappedByteBuffer map(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
@@ -1,48 +1,94 @@
 package org.example.service;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.example.deadline.RequestDeadline;
 import org.example.dto.UserEventDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Publishes user events keyed by email. Sends go through the {@code kafkaProducer}
+ * circuit breaker, which records the outcome of each acknowledgement; events that cannot
+ * be sent, and every event while older ones are still spooled, go to {@link EventSpool}
+ * so that {@link KafkaSpoolReplayer} delivers them in order.
+ */
 @Service
 public class KafkaProducerService {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaProducerService.class);
     private final KafkaTemplate<String, UserEventDto> kafkaTemplate;
+    private final EventSpool eventSpool;
+    private final CircuitBreaker circuitBreaker;
     private final String topicName;
 
-    public KafkaProducerService(KafkaTemplate<String, UserEventDto> kafkaTemplate) {
+    public KafkaProducerService(KafkaTemplate<String, UserEventDto> kafkaTemplate,
+                                EventSpool eventSpool,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                @Value("${app.kafka.topic:user-events}") String topicName) {
         this.kafkaTemplate = kafkaTemplate;
-        this.topicName = "user-events";
+        this.eventSpool = eventSpool;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("kafkaProducer");
+        this.topicName = topicName;
     }
 
-    @CircuitBreaker(name = "kafkaProducer", fallbackMethod = "sendUserEventFallback")
     public void sendUserEvent(String operation, String email) {
-        UserEventDto event = new UserEventDto(operation, email);
+        if (eventSpool.hasPending()) {
+            // the topic is keyed by email, so a live send could overtake an older spooled
+            // event for the same user; queue behind the backlog until it has drained
+            eventSpool.append(operation, email);
+            return;
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            logger.warn("Kafka circuit breaker is {}, spooling event for replay. Operation={}, email={}",
+                    circuitBreaker.getState(), operation, email);
+            eventSpool.append(operation, email);
+            return;
+        }
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            // send() may block for up to max.block.ms; the caller has no time left for that
+            circuitBreaker.releasePermission();
+            logger.warn("Request deadline exceeded, spooling event for replay. Operation={}, email={}",
+                    operation, email);
+            eventSpool.append(operation, email);
+            return;
+        }
 
-        CompletableFuture<SendResult<String, UserEventDto>> future =
-            kafkaTemplate.send(topicName, email, event);
+        UserEventDto event = new UserEventDto(operation, email);
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, UserEventDto>> future;
+        try {
+            // the caller only waits inside send(), bounded by max.block.ms; the acknowledgement
+            // is bounded by delivery.timeout.ms, and only a failed delivery is spooled, so an
+            // event acknowledged late is not replayed a second time
+            future = kafkaTemplate.send(topicName, email, event);
+        } catch (RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            logger.error("Unable to send message=[{}] due to : {}, spooling for replay", event, e.getMessage());
+            eventSpool.append(operation, email);
+            return;
+        }
 
         future.whenComplete((result, exception) -> {
+            long elapsed = System.nanoTime() - start;
             if (exception == null) {
+                circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
                 logger.info("Sent message=[{}] with offset=[{}]",
                     event, result.getRecordMetadata().offset());
             } else {
-                logger.error("Unable to send message=[{}] due to : {}",
+                circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, exception);
+                logger.error("Unable to send message=[{}] due to : {}, spooling for replay",
                     event, exception.getMessage());
+                eventSpool.append(operation, email);
             }
         });
     }
-
-    @SuppressWarnings("unused")
-    private void sendUserEventFallback(String operation, String email, Throwable throwable) {
-        logger.error("Circuit breaker fallback triggered for Kafka event. Operation={}, email={}, reason={}",
-                operation, email, throwable.getMessage());
-    }
 }
@@ -0,0 +1,103 @@
+package org.example.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.dto.UserEventDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains {@link EventSpool} back to Kafka in large batches once the
+ * {@code kafkaProducer} circuit breaker lets calls through again. A batch is committed
+ * only after every record in it has been acknowledged, so replay is at-least-once.
+ * Each batch is recorded on the breaker, so replay alone can close a half-open breaker
+ * when there is no live traffic. Each run replays a bounded number of batches so a
+ * large backlog does not hold a scheduler thread for long, and forces the spool to disk
+ * so that never happens on a request thread.
+ */
+@Component
+public class KafkaSpoolReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaSpoolReplayer.class);
+
+    private final EventSpool eventSpool;
+    private final KafkaTemplate<String, UserEventDto> kafkaTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final String topicName;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long sendTimeoutMillis;
+    private final Counter replayedCounter;
+
+    public KafkaSpoolReplayer(EventSpool eventSpool,
+                              KafkaTemplate<String, UserEventDto> kafkaTemplate,
+                              CircuitBreakerRegistry circuitBreakerRegistry,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.kafka.topic:user-events}") String topicName,
+                              @Value("${app.kafka.spool.replay-batch-size:1000}") int batchSize,
+                              @Value("${app.kafka.spool.max-batches-per-run:10}") int maxBatchesPerRun,
+                              @Value("${app.kafka.spool.replay-timeout-ms:30000}") long sendTimeoutMillis) {
+        this.eventSpool = eventSpool;
+        this.kafkaTemplate = kafkaTemplate;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("kafkaProducer");
+        this.topicName = topicName;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.replayedCounter = meterRegistry.counter("kafka.spool.replayed");
+        Gauge.builder("kafka.spool.segments", eventSpool, EventSpool::segmentCount).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.kafka.spool.replay-interval-ms:5000}")
+    public void replay() {
+        eventSpool.sync();
+        if (!eventSpool.hasPending()) {
+            return;
+        }
+
+        SpoolBatch batch = eventSpool.read(batchSize);
+        for (int replayed = 0; !batch.isEmpty(); replayed++) {
+            if (replayed == maxBatchesPerRun) {
+                // the rest is picked up by the next run
+                return;
+            }
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return;
+            }
+            long start = System.nanoTime();
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[batch.events().size()];
+            try {
+                for (int i = 0; i < futures.length; i++) {
+                    UserEventDto event = batch.events().get(i);
+                    futures[i] = kafkaTemplate.send(topicName, event.getEmail(), event);
+                }
+                CompletableFuture.allOf(futures).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                circuitBreaker.releasePermission();
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                logger.warn("Spool replay interrupted, {} events will be retried: {}", futures.length, e.getMessage());
+                return;
+            }
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            eventSpool.commit(batch);
+            replayedCounter.increment(futures.length);
+            logger.info("Replayed {} spooled user events to Kafka", futures.length);
+            batch = eventSpool.read(batchSize);
+        }
+        // an empty read can still move past fully consumed segments
+        eventSpool.commit(batch);
+    }
+}
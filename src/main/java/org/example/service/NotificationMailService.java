@@ -0,0 +1,214 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.dto.UserEventDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends notification mail for user events off the request path. Events are
+ * enqueued after the surrounding transaction commits, deduplicated per recipient
+ * while pending, and sent in batches so each batch shares one SMTP connection.
+ * Off unless {@code app.mail.enabled} is set together with {@code spring.mail.host}.
+ */
+@Service
+@ConditionalOnExpression("${app.mail.enabled:false} and '${spring.mail.host:}' != ''")
+public class NotificationMailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationMailService.class);
+
+    private final JavaMailSender mailSender;
+    private final String from;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+
+    private final BlockingQueue<MailTask> queue;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    private ExecutorService workerPool;
+    private volatile boolean running;
+
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+    private final Counter deduplicatedCounter;
+
+    public NotificationMailService(JavaMailSender mailSender,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.mail.from:noreply@example.com}") String from,
+                                   @Value("${app.mail.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${app.mail.workers:2}") int workers,
+                                   @Value("${app.mail.batch-size:50}") int batchSize,
+                                   @Value("${app.mail.max-attempts:5}") int maxAttempts,
+                                   @Value("${app.mail.initial-backoff-ms:1000}") long initialBackoffMillis) {
+        this.mailSender = mailSender;
+        this.from = from;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("mail.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.send.latency").register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("mail.sent");
+        this.failedCounter = meterRegistry.counter("mail.failed");
+        this.droppedCounter = meterRegistry.counter("mail.dropped");
+        this.deduplicatedCounter = meterRegistry.counter("mail.deduplicated");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        workerPool = Executors.newFixedThreadPool(workers);
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::runWorker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        retryScheduler.shutdownNow();
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserEvent(UserEventDto event) {
+        MailTask task = new MailTask(event, 1);
+        if (!pending.add(task.dedupeKey())) {
+            deduplicatedCounter.increment();
+            return;
+        }
+        if (!queue.offer(task)) {
+            pending.remove(task.dedupeKey());
+            droppedCounter.increment();
+            logger.warn("Mail queue is full, dropping notification. Operation={}, email={}",
+                    event.getOperation(), event.getEmail());
+        }
+    }
+
+    private void runWorker() {
+        List<MailTask> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                MailTask first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<MailTask> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = toMessage(batch.get(i).event());
+        }
+
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages);
+            batch.forEach(this::complete);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (int i = 0; i < messages.length; i++) {
+                if (failedMessages.isEmpty() || failedMessages.containsKey(messages[i])) {
+                    retry(batch.get(i), e);
+                } else {
+                    complete(batch.get(i));
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(task -> retry(task, e));
+        } finally {
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void complete(MailTask task) {
+        pending.remove(task.dedupeKey());
+        sentCounter.increment();
+    }
+
+    private void retry(MailTask task, Exception cause) {
+        if (task.attempt() >= maxAttempts || !running) {
+            pending.remove(task.dedupeKey());
+            failedCounter.increment();
+            logger.error("Giving up on notification mail after {} attempts. Operation={}, email={}, reason={}",
+                    task.attempt(), task.event().getOperation(), task.event().getEmail(), cause.getMessage());
+            return;
+        }
+        long backoff = initialBackoffMillis << (task.attempt() - 1);
+        retryScheduler.schedule(() -> {
+            if (!queue.offer(task.nextAttempt())) {
+                pending.remove(task.dedupeKey());
+                droppedCounter.increment();
+            }
+        }, backoff, TimeUnit.MILLISECONDS);
+    }
+
+    private SimpleMailMessage toMessage(UserEventDto event) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(event.getEmail());
+        if ("DELETE".equals(event.getOperation())) {
+            message.setSubject("Ваш аккаунт удален");
+            message.setText("Ваш аккаунт " + event.getEmail() + " был удален.");
+        } else {
+            message.setSubject("Добро пожаловать!");
+            message.setText("Аккаунт " + event.getEmail() + " успешно создан.");
+        }
+        return message;
+    }
+
+    private record MailTask(UserEventDto event, int attempt) {
+
+        String dedupeKey() {
+            return event.getOperation() + ":" + event.getEmail().toLowerCase(Locale.ROOT);
+        }
+
+        MailTask nextAttempt() {
+            return new MailTask(event, attempt + 1);
+        }
+    }
+}
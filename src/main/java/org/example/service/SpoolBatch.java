@@ -0,0 +1,16 @@
+package org.example.service;
+
+import org.example.dto.UserEventDto;
+
+import java.util.List;
+
+/**
+ * Events read from {@link EventSpool} together with the position right after them.
+ * The position only becomes durable once the batch is passed to {@link EventSpool#commit}.
+ */
+public record SpoolBatch(List<UserEventDto> events, long segment, int offset) {
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+}
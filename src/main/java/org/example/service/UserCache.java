@@ -0,0 +1,126 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.dto.UserDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory cache of users read by id. Caffeine evicts by size (W-TinyLFU) and
+ * expires entries after a TTL, which bounds how long a change made on another replica
+ * stays invisible here. Each entry counts its hits so the hottest part of the working
+ * set can be snapshotted and restored on restart.
+ * <p>
+ * A read that misses takes a {@link #stamp()} before going to the database; its put is
+ * rejected if the user was evicted after that, so a slow read cannot bring back the row
+ * as it was before a concurrent update.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<Long, Entry> entries;
+    private final Cache<Long, Long> evictions;
+    private final AtomicLong evictionSequence = new AtomicLong();
+
+    public UserCache(@Value("${app.user-cache.max-entries:100000}") int maxEntries,
+                     @Value("${app.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+        // a read older than the TTL would be expired right away, so tombstones need not outlive it
+        this.evictions = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public UserDto get(Long id) {
+        Entry entry = entries.getIfPresent(id);
+        if (entry == null) {
+            return null;
+        }
+        entry.hits.incrementAndGet();
+        return entry.user;
+    }
+
+    /**
+     * @return a stamp to pass to {@link #put} for a value about to be read from the database
+     */
+    public long stamp() {
+        return evictionSequence.get();
+    }
+
+    /**
+     * Caches a user read after {@code stamp} was taken, unless it was evicted since or a
+     * newer version is already cached.
+     */
+    public void put(UserDto user, LocalDateTime updatedAt, long stamp) {
+        put(user, updatedAt, stamp, 1);
+    }
+
+    void put(UserDto user, LocalDateTime updatedAt, long stamp, int hits) {
+        entries.asMap().compute(user.getId(), (id, existing) -> {
+            Long evictedAt = evictions.getIfPresent(id);
+            if (evictedAt != null && evictedAt > stamp) {
+                return existing;
+            }
+            if (existing == null) {
+                return new Entry(user, updatedAt, hits);
+            }
+            if (existing.updatedAt != null && updatedAt != null && existing.updatedAt.isAfter(updatedAt)) {
+                return existing;
+            }
+            return new Entry(user, updatedAt, existing.hits.get());
+        });
+    }
+
+    public void evict(Long id) {
+        entries.asMap().compute(id, (key, existing) -> {
+            evictions.put(key, evictionSequence.incrementAndGet());
+            return null;
+        });
+    }
+
+    public int size() {
+        return (int) entries.estimatedSize();
+    }
+
+    /**
+     * Returns up to {@code limit} users ordered by hit count, then halves every
+     * counter so the ranking follows changes in the working set.
+     */
+    List<HotUser> hottest(int limit) {
+        List<HotUser> hottest = entries.asMap().values().stream()
+                .map(entry -> new HotUser(entry.user, entry.updatedAt, entry.hits.get()))
+                .sorted(Comparator.comparingInt(HotUser::hits).reversed())
+                .limit(limit)
+                .toList();
+        entries.asMap().values().forEach(entry -> entry.hits.updateAndGet(hits -> hits >> 1));
+        return hottest;
+    }
+
+    record HotUser(UserDto user, LocalDateTime updatedAt, int hits) {
+    }
+
+    private static final class Entry {
+        private final UserDto user;
+        private final LocalDateTime updatedAt;
+        private final AtomicInteger hits;
+
+        private Entry(UserDto user, LocalDateTime updatedAt, int hits) {
+            this.user = user;
+            this.updatedAt = updatedAt;
+            this.hits = new AtomicInteger(hits);
+        }
+    }
+}
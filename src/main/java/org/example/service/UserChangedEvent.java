@@ -0,0 +1,11 @@
+package org.example.service;
+
+import org.example.dto.UserDto;
+
+/**
+ * Published by {@link UserService} for every create, update and delete so in-memory
+ * read models can follow the table. {@code previous} is null for a create and
+ * {@code current} is null for a delete.
+ */
+public record UserChangedEvent(UserDto previous, UserDto current) {
+}
@@ -0,0 +1,306 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.dto.UserDto;
+import org.example.dto.UserSuggestionDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Case-insensitive prefix index over user names for type-ahead. The bulk of the index is
+ * a sorted array of deduplicated names with a parallel {@code long[]} of ids, searched
+ * with a binary search. Committed changes go to a small overlay of additions and removed
+ * ids that is merged into the arrays once it grows past a fraction of them.
+ */
+@Service
+public class UserNameIndex implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserNameIndex.class);
+
+    private static final String SCAN_QUERY = "SELECT id, name FROM users WHERE deleted_at IS NULL";
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingLong(Entry::id);
+    private static final int MIN_OVERLAY_TO_COMPACT = 1024;
+
+    // compressed-oops estimates: String object, its byte[] header, a skip list node with its entry
+    private static final int STRING_OVERHEAD_BYTES = 24 + 16;
+    private static final int OVERLAY_ENTRY_BYTES = 96;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate scanTransaction;
+    private final int fetchSize;
+    private final Object writeLock = new Object();
+
+    private volatile Snapshot snapshot = Snapshot.empty();
+    private List<UserChangedEvent> pendingDuringBuild;
+
+    public UserNameIndex(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.user-suggest.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // the driver only fetches in batches when autocommit is off, so the scan runs in a transaction
+        this.scanTransaction = new TransactionTemplate(transactionManager);
+        this.scanTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+        Gauge.builder("user.name.index.entries", this, UserNameIndex::size).register(meterRegistry);
+        Gauge.builder("user.name.index.bytes", this, UserNameIndex::estimatedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Streams the users table into a fresh index. Changes committed while the scan runs
+     * are replayed on top of it; the overlay operations are idempotent, so a change that
+     * the scan already saw is harmless.
+     */
+    public void rebuild() {
+        synchronized (writeLock) {
+            pendingDuringBuild = new ArrayList<>();
+        }
+        try {
+            List<Entry> entries = new ArrayList<>();
+            Map<String, String> names = new HashMap<>();
+            scanTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SCAN_QUERY,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, resultSet -> {
+                String name = resultSet.getString("name");
+                entries.add(new Entry(names.computeIfAbsent(name, n -> n), resultSet.getLong("id")));
+            }));
+            entries.sort(ORDER);
+
+            synchronized (writeLock) {
+                snapshot = Snapshot.of(entries);
+                pendingDuringBuild.forEach(this::apply);
+            }
+        } finally {
+            synchronized (writeLock) {
+                pendingDuringBuild = null;
+            }
+        }
+        logger.info("User name index built: {} entries, ~{} KB", size(), estimatedBytes() / 1024);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        synchronized (writeLock) {
+            if (pendingDuringBuild != null) {
+                pendingDuringBuild.add(event);
+            }
+            apply(event);
+        }
+    }
+
+    /**
+     * @return up to {@code limit} users whose name starts with {@code prefix}, ignoring
+     * case, in name order
+     */
+    public List<UserSuggestionDto> suggest(String prefix, int limit) {
+        Snapshot current = snapshot;
+        List<UserSuggestionDto> matches = new ArrayList<>(Math.min(limit, 64));
+
+        int base = current.lowerBound(prefix);
+        Iterator<Entry> overlay = current.additions.tailSet(new Entry(prefix, Long.MIN_VALUE)).iterator();
+        Entry fromOverlay = nextMatch(overlay, prefix);
+
+        while (matches.size() < limit) {
+            while (base < current.ids.length && current.removed.contains(current.ids[base])) {
+                base++;
+            }
+            Entry fromBase = base < current.ids.length && startsWith(current.names[base], prefix)
+                    ? new Entry(current.names[base], current.ids[base]) : null;
+            if (fromBase == null && fromOverlay == null) {
+                break;
+            }
+            if (fromOverlay == null || (fromBase != null && ORDER.compare(fromBase, fromOverlay) <= 0)) {
+                matches.add(new UserSuggestionDto(fromBase.id(), fromBase.name()));
+                base++;
+            } else {
+                matches.add(new UserSuggestionDto(fromOverlay.id(), fromOverlay.name()));
+                fromOverlay = nextMatch(overlay, prefix);
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current.ids.length - current.removed.size() + current.additions.size();
+    }
+
+    public long estimatedBytes() {
+        Snapshot current = snapshot;
+        return current.arrayBytes
+                + (long) (current.additions.size() + current.removed.size()) * OVERLAY_ENTRY_BYTES;
+    }
+
+    private void apply(UserChangedEvent event) {
+        UserDto previous = event.previous();
+        UserDto next = event.current();
+        if (previous != null && next != null && Objects.equals(previous.getName(), next.getName())) {
+            return;
+        }
+        Snapshot current = snapshot;
+        if (previous != null && previous.getName() != null) {
+            current.remove(new Entry(previous.getName(), previous.getId()));
+        }
+        if (next != null && next.getName() != null) {
+            current.add(new Entry(next.getName(), next.getId()));
+        }
+        if (current.additions.size() + current.removed.size()
+                > Math.max(MIN_OVERLAY_TO_COMPACT, current.ids.length / 16)) {
+            snapshot = current.compact();
+        }
+    }
+
+    private static Entry nextMatch(Iterator<Entry> overlay, String prefix) {
+        if (overlay.hasNext()) {
+            Entry entry = overlay.next();
+            return startsWith(entry.name(), prefix) ? entry : null;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(String name, String prefix) {
+        return name.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    private record Entry(String name, long id) {
+    }
+
+    /**
+     * Sorted base arrays plus the overlay written since they were built. Readers never
+     * lock; writers hold the index write lock and replace the snapshot when compacting.
+     */
+    private static final class Snapshot {
+        private final String[] names;
+        private final long[] ids;
+        private final long arrayBytes;
+        private final NavigableSet<Entry> additions = new ConcurrentSkipListSet<>(ORDER);
+        private final Set<Long> removed = ConcurrentHashMap.newKeySet();
+
+        private Snapshot(String[] names, long[] ids, long arrayBytes) {
+            this.names = names;
+            this.ids = ids;
+            this.arrayBytes = arrayBytes;
+        }
+
+        static Snapshot empty() {
+            return new Snapshot(new String[0], new long[0], 0);
+        }
+
+        static Snapshot of(List<Entry> sorted) {
+            String[] names = new String[sorted.size()];
+            long[] ids = new long[sorted.size()];
+            long bytes = 16L + 4L * names.length + 16L + 8L * ids.length;
+            String last = null;
+            for (int i = 0; i < names.length; i++) {
+                Entry entry = sorted.get(i);
+                names[i] = entry.name();
+                ids[i] = entry.id();
+                if (entry.name() != last) {
+                    bytes += stringBytes(entry.name());
+                    last = entry.name();
+                }
+            }
+            return new Snapshot(names, ids, bytes);
+        }
+
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = names.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (String.CASE_INSENSITIVE_ORDER.compare(names[mid], prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void add(Entry entry) {
+            if (inBase(entry)) {
+                removed.remove(entry.id());
+            } else {
+                additions.add(entry);
+            }
+        }
+
+        void remove(Entry entry) {
+            if (!additions.remove(entry) && inBase(entry)) {
+                removed.add(entry.id());
+            }
+        }
+
+        Snapshot compact() {
+            List<Entry> merged = new ArrayList<>(ids.length - removed.size() + additions.size());
+            Iterator<Entry> overlay = additions.iterator();
+            Entry next = overlay.hasNext() ? overlay.next() : null;
+            for (int i = 0; i < ids.length; i++) {
+                if (removed.contains(ids[i])) {
+                    continue;
+                }
+                Entry entry = new Entry(names[i], ids[i]);
+                while (next != null && ORDER.compare(next, entry) < 0) {
+                    merged.add(next);
+                    next = overlay.hasNext() ? overlay.next() : null;
+                }
+                merged.add(entry);
+            }
+            while (next != null) {
+                merged.add(next);
+                next = overlay.hasNext() ? overlay.next() : null;
+            }
+            return of(merged);
+        }
+
+        private boolean inBase(Entry entry) {
+            for (int i = lowerBound(entry.name()); i < names.length
+                    && String.CASE_INSENSITIVE_ORDER.compare(names[i], entry.name()) == 0; i++) {
+                if (ids[i] == entry.id() && names[i].equals(entry.name())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static long stringBytes(String name) {
+            boolean latin1 = name.chars().allMatch(c -> c <= 0xFF);
+            long bytes = STRING_OVERHEAD_BYTES + (latin1 ? name.length() : 2L * name.length());
+            return (bytes + 7) & ~7L;
+        }
+    }
+}
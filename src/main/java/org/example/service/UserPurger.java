@@ -0,0 +1,145 @@
+package org.example.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hard-deletes soft-deleted users in small batches. Each run deletes at most
+ * {@code batches-per-run} batches with a pause between them, and skips the run while
+ * the connection pool is busy, so purging only uses spare database capacity. Runs happen
+ * on a thread of their own, so the pauses never hold up the shared scheduler.
+ */
+@Component
+public class UserPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPurger.class);
+
+    private static final String PURGE_BATCH =
+            "DELETE FROM users WHERE id IN (SELECT id FROM users "
+                    + "WHERE deleted_at < now() - make_interval(secs => ?) "
+                    + "LIMIT ? FOR UPDATE SKIP LOCKED)";
+    private static final String BACKLOG = "SELECT count(*) FROM users WHERE deleted_at IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HikariDataSource hikari;
+    private final int batchSize;
+    private final int batchesPerRun;
+    private final long pauseMillis;
+    private final long intervalMillis;
+    private final long gracePeriodSeconds;
+    private final double maxPoolUsage;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter purgedCounter;
+    private final Counter skippedRuns;
+    private final Timer batchTimer;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserPurger(JdbcTemplate jdbcTemplate,
+                      DataSource dataSource,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.user-purge.batch-size:500}") int batchSize,
+                      @Value("${app.user-purge.batches-per-run:10}") int batchesPerRun,
+                      @Value("${app.user-purge.pause-ms:200}") long pauseMillis,
+                      @Value("${app.user-purge.interval-ms:30000}") long intervalMillis,
+                      @Value("${app.user-purge.grace-period-seconds:60}") long gracePeriodSeconds,
+                      @Value("${app.user-purge.max-pool-usage:0.5}") double maxPoolUsage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hikari = hikari(dataSource);
+        this.batchSize = batchSize;
+        this.batchesPerRun = batchesPerRun;
+        this.pauseMillis = pauseMillis;
+        this.intervalMillis = intervalMillis;
+        this.gracePeriodSeconds = gracePeriodSeconds;
+        this.maxPoolUsage = maxPoolUsage;
+        this.purgedCounter = meterRegistry.counter("users.purge.deleted");
+        this.skippedRuns = meterRegistry.counter("users.purge.skipped");
+        this.batchTimer = meterRegistry.timer("users.purge.batch");
+        Gauge.builder("users.purge.backlog", backlog, AtomicLong::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                purge();
+            } catch (RuntimeException e) {
+                // a failed run must not cancel the ones that follow
+                logger.warn("User purge run failed: {}", e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public void purge() {
+        for (int batch = 0; batch < batchesPerRun; batch++) {
+            if (busy()) {
+                skippedRuns.increment();
+                break;
+            }
+            int deleted = purgeBatch();
+            if (deleted < batchSize) {
+                break;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        backlog.set(jdbcTemplate.queryForObject(BACKLOG, Long.class));
+    }
+
+    int purgeBatch() {
+        int deleted = batchTimer.record(() -> jdbcTemplate.update(PURGE_BATCH, gracePeriodSeconds, batchSize));
+        purgedCounter.increment(deleted);
+        if (deleted > 0) {
+            logger.debug("Purged {} soft-deleted users", deleted);
+        }
+        return deleted;
+    }
+
+    private boolean busy() {
+        HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        if (pool == null) {
+            return false;
+        }
+        return pool.getThreadsAwaitingConnection() > 0
+                || pool.getActiveConnections() > maxPoolUsage * hikari.getMaximumPoolSize();
+    }
+
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -4,14 +4,20 @@ import org.example.User;
 import org.example.dto.CreateUserDto;
 import org.example.dto.UpdateUserDto;
 import org.example.dto.UserDto;
+import org.example.dto.UserEventDto;
 import org.example.exception.UserAlreadyExistsException;
 import org.example.exception.UserNotFoundException;
 import org.example.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -19,53 +25,87 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final KafkaProducerService kafkaProducerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCache userCache;
 
-    public UserService(UserRepository userRepository, KafkaProducerService kafkaProducerService) {
+    public UserService(UserRepository userRepository,
+                       KafkaProducerService kafkaProducerService,
+                       ApplicationEventPublisher eventPublisher,
+                       UserCache userCache) {
         this.userRepository = userRepository;
         this.kafkaProducerService = kafkaProducerService;
+        this.eventPublisher = eventPublisher;
+        this.userCache = userCache;
     }
 
     public UserDto createUser(CreateUserDto createUserDto) {
-        if (userRepository.existsByEmail(createUserDto.getEmail())) {
-            throw new UserAlreadyExistsException(createUserDto.getEmail());
+        String email = createUserDto.getEmail().trim();
+        if (userRepository.existsByEmail(EmailNormalizer.normalize(email))) {
+            throw new UserAlreadyExistsException(email);
         }
 
         User user = new User();
         user.setName(createUserDto.getName());
-        user.setEmail(createUserDto.getEmail());
+        user.setEmail(email);
         user.setAge(createUserDto.getAge());
 
         User savedUser = userRepository.save(user);
 
+        UserDto savedUserDto = convertToDto(savedUser);
+
         kafkaProducerService.sendUserEvent("CREATE", savedUser.getEmail());
-        
-        return convertToDto(savedUser);
+        eventPublisher.publishEvent(new UserEventDto("CREATE", savedUser.getEmail()));
+        eventPublisher.publishEvent(new UserChangedEvent(null, savedUserDto));
+
+        return savedUserDto;
     }
 
-    @Transactional(readOnly = true)
+    // SUPPORTS: a cache hit must not open a transaction and take a pooled connection
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public UserDto getUserById(Long id) {
+        UserDto cached = userCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = userCache.stamp();
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException(id));
-        return convertToDto(user);
+        UserDto userDto = convertToDto(user);
+        userCache.put(userDto, user.getUpdatedAt(), stamp);
+        return userDto;
     }
 
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public UserDto getUserByEmail(String email) {
+        Long id = userRepository.findIdByEmail(EmailNormalizer.normalize(email))
+                .orElseThrow(() -> new UserNotFoundException("User with email " + email + " not found"));
+        return getUserById(id);
+    }
+
+    /**
+     * Hands every user to {@code writer} as rows arrive from a database cursor, so the
+     * table is never held in memory. The transaction stays open until the writer returns.
+     */
     @Transactional(readOnly = true)
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public void streamAllUsers(UsersWriter writer) throws IOException {
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            writer.write(users.iterator());
+        }
     }
 
     public UserDto updateUser(Long id, UpdateUserDto updateUserDto) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException(id));
+        UserDto previous = convertToDto(user);
 
         if (updateUserDto.getName() != null && !updateUserDto.getName().trim().isEmpty()) {
             user.setName(updateUserDto.getName().trim());
         }
         if (updateUserDto.getEmail() != null && !updateUserDto.getEmail().trim().isEmpty()) {
             String newEmail = updateUserDto.getEmail().trim();
-            if (userRepository.existsByEmail(newEmail) && !user.getEmail().equals(newEmail)) {
+            String normalized = EmailNormalizer.normalize(newEmail);
+            if (!normalized.equals(EmailNormalizer.normalize(user.getEmail()))
+                    && userRepository.existsByEmail(normalized)) {
                 throw new UserAlreadyExistsException(newEmail);
             }
             user.setEmail(newEmail);
@@ -75,17 +115,45 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
-        return convertToDto(updatedUser);
+        evictFromCache(id);
+
+        UserDto updatedUserDto = convertToDto(updatedUser);
+        eventPublisher.publishEvent(new UserChangedEvent(previous, updatedUserDto));
+        return updatedUserDto;
     }
 
     public void deleteUser(Long id) {
-        User user = userRepository.findById(id)
+        User user = userRepository.softDeleteById(id)
                 .orElseThrow(() -> new UserNotFoundException(id));
-        
+
         String email = user.getEmail();
-        userRepository.deleteById(id);
+        UserDto previous = convertToDto(user);
+        evictFromCache(id);
 
         kafkaProducerService.sendUserEvent("DELETE", email);
+        eventPublisher.publishEvent(new UserEventDto("DELETE", email));
+        eventPublisher.publishEvent(new UserChangedEvent(previous, null));
+    }
+
+    /**
+     * Evicts now and again after commit. A read that started before the second eviction
+     * cannot re-cache the row as it was before this transaction, as its stamp is older.
+     */
+    private void evictFromCache(Long id) {
+        userCache.evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userCache.evict(id);
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    public interface UsersWriter {
+        void write(Iterator<UserDto> users) throws IOException;
     }
 
     private UserDto convertToDto(User user) {
@@ -0,0 +1,221 @@
+package org.example.service;
+
+import org.example.dto.UserDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Persists the hottest part of {@link UserCache} to local disk and restores it on
+ * startup, so a freshly deployed replica does not send its whole read load to Postgres.
+ * <p>
+ * File layout: {@code [int magic][int version][long takenAt][int count][int offset * count]}
+ * followed by the records, each {@code [long id][int age][long createdAt][int createdAtNanos]
+ * [long updatedAt][int updatedAtNanos][short nameLength][name][short emailLength][email]}.
+ * Times are LocalDateTime values encoded as epoch seconds at UTC. The offset table lets the
+ * records be decoded in parallel.
+ */
+@Service
+public class UserSnapshotService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSnapshotService.class);
+
+    private static final int MAGIC = 0x55534E50;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final UserCache userCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path snapshotFile;
+    private final int maxUsers;
+
+    public UserSnapshotService(UserCache userCache,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${app.user-cache.snapshot.file:snapshot/users.snapshot}") String snapshotFile,
+                               @Value("${app.user-cache.snapshot.max-users:50000}") int maxUsers) {
+        this.userCache = userCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotFile = Path.of(snapshotFile);
+        this.maxUsers = maxUsers;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int restored = load();
+            logger.info("Restored {} users from snapshot {} in {} ms",
+                    restored, snapshotFile, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable user snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.user-cache.snapshot.interval-ms:60000}",
+            fixedDelayString = "${app.user-cache.snapshot.interval-ms:60000}")
+    public void write() {
+        LocalDateTime takenAt = LocalDateTime.now();
+        List<UserCache.HotUser> hottest = userCache.hottest(maxUsers);
+        if (hottest.isEmpty()) {
+            return;
+        }
+
+        byte[][] names = new byte[hottest.size()][];
+        byte[][] emails = new byte[hottest.size()][];
+        int offset = HEADER_BYTES + 4 * hottest.size();
+        int[] offsets = new int[hottest.size()];
+        for (int i = 0; i < hottest.size(); i++) {
+            UserDto user = hottest.get(i).user();
+            names[i] = user.getName().getBytes(StandardCharsets.UTF_8);
+            emails[i] = user.getEmail().getBytes(StandardCharsets.UTF_8);
+            offsets[i] = offset;
+            offset += 8 + 4 + 8 + 4 + 8 + 4 + 2 + names[i].length + 2 + emails[i].length;
+        }
+
+        try {
+            Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+            Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(takenAt.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(hottest.size());
+                for (int recordOffset : offsets) {
+                    out.writeInt(recordOffset);
+                }
+                for (int i = 0; i < hottest.size(); i++) {
+                    UserDto user = hottest.get(i).user();
+                    out.writeLong(user.getId());
+                    out.writeInt(user.getAge());
+                    writeTime(out, user.getCreatedAt());
+                    writeTime(out, hottest.get(i).updatedAt());
+                    out.writeShort(names[i].length);
+                    out.write(names[i]);
+                    out.writeShort(emails[i].length);
+                    out.write(emails[i]);
+                }
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Unable to write user snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    int load() throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("unexpected snapshot header");
+        }
+        int count = buffer.getInt(16);
+
+        UserDto[] users = new UserDto[count];
+        LocalDateTime[] updatedAt = new LocalDateTime[count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            int offset = buffer.getInt(HEADER_BYTES + 4 * i);
+            users[i] = decode(buffer, offset);
+            updatedAt[i] = readTime(buffer, offset + 24);
+        });
+
+        long stamp = userCache.stamp();
+        Set<Long> validIds = reconcile(users, updatedAt);
+        int restored = 0;
+        for (int i = 0; i < count; i++) {
+            if (validIds.contains(users[i].getId())) {
+                // earlier records were hotter, keep that order as the initial hit count
+                userCache.put(users[i], updatedAt[i], stamp, count - i);
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * One query over the snapshot ids: a record is kept only while the row still carries the
+     * {@code updated_at} it was cached with. Rows that are gone, deleted or changed since are
+     * dropped and will be read from the database on demand.
+     */
+    private Set<Long> reconcile(UserDto[] users, LocalDateTime[] updatedAt) {
+        Long[] ids = new Long[users.length];
+        Timestamp[] versions = new Timestamp[users.length];
+        for (int i = 0; i < users.length; i++) {
+            ids[i] = users[i].getId();
+            versions[i] = updatedAt[i] != null ? Timestamp.valueOf(updatedAt[i]) : null;
+        }
+        Set<Long> valid = new HashSet<>(users.length * 2);
+        jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(
+                            "SELECT u.id FROM users u JOIN unnest(?::bigint[], ?::timestamp[]) AS s(id, updated_at) "
+                                    + "ON u.id = s.id AND u.updated_at = s.updated_at "
+                                    + "WHERE u.deleted_at IS NULL");
+                    Array idArray = connection.createArrayOf("bigint", ids);
+                    Array versionArray = connection.createArrayOf("timestamp", versions);
+                    statement.setArray(1, idArray);
+                    statement.setArray(2, versionArray);
+                    return statement;
+                },
+                resultSet -> {
+                    valid.add(resultSet.getLong(1));
+                });
+        return valid;
+    }
+
+    private static UserDto decode(MappedByteBuffer buffer, int offset) {
+        long id = buffer.getLong(offset);
+        int age = buffer.getInt(offset + 8);
+        LocalDateTime createdAt = readTime(buffer, offset + 12);
+        int nameLength = buffer.getShort(offset + 36) & 0xFFFF;
+        String name = readString(buffer, offset + 38, nameLength);
+        int emailOffset = offset + 38 + nameLength;
+        int emailLength = buffer.getShort(emailOffset) & 0xFFFF;
+        String email = readString(buffer, emailOffset + 2, emailLength);
+        return new UserDto(id, name, email, age, createdAt);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time != null ? time.toEpochSecond(ZoneOffset.UTC) : NO_TIME);
+        out.writeInt(time != null ? time.getNano() : 0);
+    }
+
+    private static LocalDateTime readTime(MappedByteBuffer buffer, int offset) {
+        long seconds = buffer.getLong(offset);
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, buffer.getInt(offset + 8), ZoneOffset.UTC);
+    }
+
+    private static String readString(MappedByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
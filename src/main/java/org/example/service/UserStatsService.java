@@ -0,0 +1,232 @@
+package org.example.service;
+
+import org.example.dto.UserDto;
+import org.example.dto.UserStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Serves user statistics from in-memory counters. The counters are built with one
+ * aggregate query, follow committed changes through {@link UserChangedEvent}, and are
+ * rebuilt periodically to correct any drift.
+ * <p>
+ * Deltas are not idempotent, so a rebuild has to know which changes its query already
+ * saw. Each delta carries the id of the transaction that committed it, and the rebuild
+ * reads inside a repeatable-read transaction whose snapshot it records. Deltas recorded
+ * from the start of the rebuild are replayed onto the new counters unless that snapshot
+ * already saw their transaction, and the same check drops late deltas after the swap.
+ * Writers never wait for the rebuild.
+ */
+@Service
+public class UserStatsService implements ApplicationRunner {
+
+    static final int[] AGE_BUCKET_LOWER_BOUNDS = {0, 18, 25, 35, 45, 55, 65};
+    private static final String[] AGE_BUCKET_LABELS = {"0-17", "18-24", "25-34", "35-44", "45-54", "55-64", "65+"};
+
+    private static final String CURRENT_TRANSACTION = "SELECT pg_current_xact_id()::text::bigint";
+    private static final String CURRENT_SNAPSHOT = "SELECT pg_current_snapshot()::text";
+    private static final String AGGREGATE_QUERY =
+            "SELECT age, CAST(created_at AS date) AS day, count(*) AS users FROM users "
+                    + "WHERE deleted_at IS NULL GROUP BY age, day";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final int reportedDays;
+    private final Object writeLock = new Object();
+
+    private volatile Aggregates aggregates = new Aggregates(Snapshot.NONE);
+    private List<Change> pendingDuringBuild;
+
+    public UserStatsService(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.user-stats.reported-days:30}") int reportedDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.reportedDays = reportedDays;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${app.user-stats.reconcile-interval-ms:600000}",
+            fixedDelayString = "${app.user-stats.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        synchronized (writeLock) {
+            pendingDuringBuild = new ArrayList<>();
+        }
+        try {
+            Aggregates rebuilt = snapshotTransaction.execute(status -> {
+                // the first statement fixes the snapshot the aggregate query reads from
+                Aggregates built = new Aggregates(
+                        Snapshot.parse(jdbcTemplate.queryForObject(CURRENT_SNAPSHOT, String.class)));
+                jdbcTemplate.query(AGGREGATE_QUERY, resultSet -> {
+                    long users = resultSet.getLong("users");
+                    Date day = resultSet.getDate("day");
+                    built.add(resultSet.getInt("age"), day != null ? day.toLocalDate() : null, users);
+                });
+                return built;
+            });
+            synchronized (writeLock) {
+                pendingDuringBuild.forEach(change -> apply(rebuilt, change));
+                aggregates = rebuilt;
+            }
+        } finally {
+            synchronized (writeLock) {
+                pendingDuringBuild = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(new Change(event, Change.UNKNOWN_TRANSACTION));
+            return;
+        }
+        // still inside the writing transaction, so this is the id its commit will carry
+        Change change = new Change(event, jdbcTemplate.queryForObject(CURRENT_TRANSACTION, Long.class));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(change);
+            }
+        });
+    }
+
+    public UserStatsDto getStats() {
+        Aggregates current = aggregates;
+
+        Map<String, Long> ageHistogram = new LinkedHashMap<>();
+        for (int i = 0; i < AGE_BUCKET_LABELS.length; i++) {
+            ageHistogram.put(AGE_BUCKET_LABELS[i], current.ageBuckets[i].sum());
+        }
+
+        Map<String, Long> createdPerDay = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now();
+        for (LocalDate day = today.minusDays(reportedDays - 1); !day.isAfter(today); day = day.plusDays(1)) {
+            LongAdder created = current.createdPerDay.get(day);
+            createdPerDay.put(day.toString(), created != null ? created.sum() : 0L);
+        }
+
+        return new UserStatsDto(current.total.sum(), ageHistogram, createdPerDay, current.builtAt);
+    }
+
+    static int ageBucket(int age) {
+        for (int i = AGE_BUCKET_LOWER_BOUNDS.length - 1; i > 0; i--) {
+            if (age >= AGE_BUCKET_LOWER_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private void record(Change change) {
+        synchronized (writeLock) {
+            apply(aggregates, change);
+            if (pendingDuringBuild != null) {
+                pendingDuringBuild.add(change);
+            }
+        }
+    }
+
+    private static void apply(Aggregates target, Change change) {
+        if (target.snapshot.sees(change.transactionId())) {
+            return;
+        }
+        UserChangedEvent event = change.event();
+        UserDto previous = event.previous();
+        UserDto next = event.current();
+        if (previous != null) {
+            target.add(previous.getAge(), createdDay(previous), -1);
+        }
+        if (next != null) {
+            target.add(next.getAge(), createdDay(next), 1);
+        }
+    }
+
+    private static LocalDate createdDay(UserDto user) {
+        return user.getCreatedAt() != null ? user.getCreatedAt().toLocalDate() : null;
+    }
+
+    /**
+     * A committed change and the id of the transaction that committed it.
+     */
+    private record Change(UserChangedEvent event, long transactionId) {
+        static final long UNKNOWN_TRANSACTION = -1;
+    }
+
+    /**
+     * The transactions a database snapshot saw, parsed from {@code pg_current_snapshot()}:
+     * everything below {@code xmin}, and everything below {@code xmax} that was not
+     * in progress.
+     */
+    record Snapshot(long xmin, long xmax, Set<Long> inProgress) {
+        static final Snapshot NONE = new Snapshot(0, 0, Set.of());
+
+        static Snapshot parse(String snapshot) {
+            String[] parts = snapshot.split(":");
+            Set<Long> inProgress = parts.length > 2 && !parts[2].isEmpty()
+                    ? Arrays.stream(parts[2].split(",")).map(Long::valueOf).collect(Collectors.toSet())
+                    : Set.of();
+            return new Snapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), inProgress);
+        }
+
+        boolean sees(long transactionId) {
+            if (transactionId < 0) {
+                return false;
+            }
+            return transactionId < xmin || (transactionId < xmax && !inProgress.contains(transactionId));
+        }
+    }
+
+    private static final class Aggregates {
+        private final Snapshot snapshot;
+        private final LocalDateTime builtAt = LocalDateTime.now();
+        private final LongAdder total = new LongAdder();
+        private final LongAdder[] ageBuckets = new LongAdder[AGE_BUCKET_LOWER_BOUNDS.length];
+        private final Map<LocalDate, LongAdder> createdPerDay = new ConcurrentHashMap<>();
+
+        private Aggregates(Snapshot snapshot) {
+            this.snapshot = snapshot;
+            for (int i = 0; i < ageBuckets.length; i++) {
+                ageBuckets[i] = new LongAdder();
+            }
+        }
+
+        private void add(int age, LocalDate createdDay, long users) {
+            total.add(users);
+            ageBuckets[ageBucket(age)].add(users);
+            if (createdDay != null) {
+                createdPerDay.computeIfAbsent(createdDay, day -> new LongAdder()).add(users);
+            }
+        }
+    }
+}
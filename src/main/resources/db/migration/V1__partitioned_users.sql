@@ -0,0 +1,78 @@
+-- Users are hash-partitioned on id. Postgres cannot enforce a unique index across
+-- partitions unless it contains the partition key, so global email uniqueness is
+-- kept in the user_emails lookup table, maintained by a trigger on users.
+
+-- Tables created earlier by hibernate ddl-auto are migrated in place.
+DO $$
+BEGIN
+    IF to_regclass('public.users') IS NOT NULL
+            AND NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'public.users'::regclass) THEN
+        ALTER TABLE users RENAME TO users_legacy;
+        -- the primary key index keeps its name across the rename and would clash with
+        -- the one created for the partitioned table below
+        IF EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conname = 'users_pkey' AND conrelid = 'public.users_legacy'::regclass) THEN
+            ALTER TABLE users_legacy RENAME CONSTRAINT users_pkey TO users_legacy_pkey;
+        END IF;
+    END IF;
+END $$;
+
+CREATE SEQUENCE IF NOT EXISTS users_id_seq_partitioned;
+
+CREATE TABLE users (
+    id         BIGINT       NOT NULL DEFAULT nextval('users_id_seq_partitioned'),
+    name       VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    age        INTEGER      NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+) PARTITION BY HASH (id);
+
+ALTER SEQUENCE users_id_seq_partitioned OWNED BY users.id;
+
+DO $$
+BEGIN
+    FOR i IN 0..7 LOOP
+        EXECUTE format('CREATE TABLE users_p%s PARTITION OF users FOR VALUES WITH (MODULUS 8, REMAINDER %s)', i, i);
+    END LOOP;
+END $$;
+
+CREATE TABLE user_emails (
+    email   VARCHAR(255) PRIMARY KEY,
+    user_id BIGINT       NOT NULL
+);
+
+CREATE FUNCTION users_email_lookup() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO user_emails (email, user_id) VALUES (NEW.email, NEW.id);
+    ELSIF TG_OP = 'UPDATE' THEN
+        DELETE FROM user_emails WHERE email = OLD.email;
+        INSERT INTO user_emails (email, user_id) VALUES (NEW.email, NEW.id);
+    ELSIF TG_OP = 'DELETE' THEN
+        DELETE FROM user_emails WHERE email = OLD.email;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- WHEN cannot reference OLD and NEW in a trigger that also fires on INSERT or DELETE,
+-- so updates get their own trigger that skips rows whose email did not change.
+CREATE TRIGGER users_email_lookup
+    AFTER INSERT OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION users_email_lookup();
+
+CREATE TRIGGER users_email_lookup_update
+    AFTER UPDATE OF email ON users
+    FOR EACH ROW WHEN (OLD.email IS DISTINCT FROM NEW.email)
+    EXECUTE FUNCTION users_email_lookup();
+
+DO $$
+BEGIN
+    IF to_regclass('public.users_legacy') IS NOT NULL THEN
+        INSERT INTO users (id, name, email, age, created_at)
+        SELECT id, name, email, age, created_at FROM users_legacy;
+        PERFORM setval('users_id_seq_partitioned', COALESCE((SELECT max(id) FROM users), 0) + 1, false);
+        DROP TABLE users_legacy;
+    END IF;
+END $$;
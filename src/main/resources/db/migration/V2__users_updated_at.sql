@@ -0,0 +1,3 @@
+ALTER TABLE users ADD COLUMN updated_at TIMESTAMP(6);
+UPDATE users SET updated_at = created_at;
+ALTER TABLE users ALTER COLUMN updated_at SET NOT NULL;
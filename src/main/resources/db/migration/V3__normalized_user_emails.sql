@@ -0,0 +1,49 @@
+-- user_emails now holds the normalized (trimmed, lower-cased) email, so uniqueness
+-- checks and by-email lookups are case-insensitive single primary-key probes.
+-- users.email keeps the address as the user entered it.
+
+CREATE OR REPLACE FUNCTION normalize_email(email TEXT) RETURNS TEXT
+    IMMUTABLE STRICT PARALLEL SAFE
+    LANGUAGE sql AS $$ SELECT lower(btrim(email)) $$;
+
+CREATE OR REPLACE FUNCTION users_email_lookup() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM user_emails WHERE email = normalize_email(OLD.email) AND user_id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO user_emails (email, user_id) VALUES (normalize_email(NEW.email), NEW.id);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- a change of case or surrounding spaces leaves the lookup row as it is
+DROP TRIGGER users_email_lookup_update ON users;
+
+CREATE TRIGGER users_email_lookup_update
+    AFTER UPDATE OF email ON users
+    FOR EACH ROW WHEN (normalize_email(OLD.email) IS DISTINCT FROM normalize_email(NEW.email))
+    EXECUTE FUNCTION users_email_lookup();
+
+-- Emails that only differ by case or surrounding spaces cannot share a lookup row. They
+-- have to be merged or renamed by hand before this migration can run.
+DO $$
+DECLARE
+    collisions TEXT;
+BEGIN
+    SELECT string_agg(format('%s (user ids %s)', normalized, ids), '; ' ORDER BY normalized)
+    INTO collisions
+    FROM (SELECT normalize_email(email) AS normalized, string_agg(id::TEXT, ', ' ORDER BY id) AS ids
+          FROM users
+          GROUP BY normalize_email(email)
+          HAVING count(*) > 1) duplicates;
+    IF collisions IS NOT NULL THEN
+        RAISE EXCEPTION 'Users with emails differing only by case or spaces: %', collisions
+            USING HINT = 'Merge or rename these users, then rerun the migration.';
+    END IF;
+END $$;
+
+TRUNCATE user_emails;
+INSERT INTO user_emails (email, user_id)
+SELECT normalize_email(email), id FROM users;
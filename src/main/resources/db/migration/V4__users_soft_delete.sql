@@ -0,0 +1,26 @@
+-- Users are soft-deleted by setting deleted_at and hard-deleted later in batches by
+-- UserPurger. A soft-deleted user releases its email right away.
+
+ALTER TABLE users ADD COLUMN deleted_at TIMESTAMP(6);
+
+CREATE INDEX users_deleted_at_idx ON users (deleted_at) WHERE deleted_at IS NOT NULL;
+
+CREATE OR REPLACE FUNCTION users_email_lookup() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM user_emails WHERE email = normalize_email(OLD.email) AND user_id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.deleted_at IS NULL THEN
+        INSERT INTO user_emails (email, user_id) VALUES (normalize_email(NEW.email), NEW.id);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER users_email_lookup_update ON users;
+
+CREATE TRIGGER users_email_lookup_update
+    AFTER UPDATE OF email, deleted_at ON users
+    FOR EACH ROW WHEN (normalize_email(OLD.email) IS DISTINCT FROM normalize_email(NEW.email)
+                       OR OLD.deleted_at IS DISTINCT FROM NEW.deleted_at)
+    EXECUTE FUNCTION users_email_lookup();
@@ -0,0 +1,18 @@
+-- Responses to write requests sent with an Idempotency-Key, shared by all instances
+-- when app.idempotency.store=jdbc. response_status is NULL while the first request
+-- is still running; owner_token identifies the request holding the key, so one whose
+-- lease expired and was taken over can no longer record or release it.
+
+CREATE TABLE idempotency_keys (
+    idempotency_key CHAR(64)     PRIMARY KEY,
+    fingerprint     CHAR(64)     NOT NULL,
+    owner_token     CHAR(36)     NOT NULL,
+    response_status INTEGER,
+    content_type    VARCHAR(255),
+    location        VARCHAR(2048),
+    body            BYTEA,
+    created_at      TIMESTAMP(6) NOT NULL,
+    expires_at      TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idempotency_keys_expires_at_idx ON idempotency_keys (expires_at);
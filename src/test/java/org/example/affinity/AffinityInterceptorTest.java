@@ -0,0 +1,194 @@
+package org.example.affinity;
+
+import com.sun.net.httpserver.HttpServer;
+import org.example.exception.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AffinityInterceptorTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int SELF_PORT = 8081;
+
+    private HttpServer owner;
+    private int deadPort;
+    private AffinityRouter router;
+    private final Map<String, String> receivedHeaders = new ConcurrentHashMap<>();
+    private final AtomicLong ownerDelayMillis = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        owner = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        owner.createContext("/", exchange -> {
+            exchange.getRequestHeaders().forEach((name, values) -> receivedHeaders.put(name, values.get(0)));
+            byte[] request = exchange.getRequestBody().readAllBytes();
+            receivedHeaders.put("body", new String(request, StandardCharsets.UTF_8));
+            try {
+                TimeUnit.MILLISECONDS.sleep(ownerDelayMillis.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] response = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Location", "/api/users/1");
+            exchange.getResponseHeaders().add("Vary", "Accept");
+            exchange.getResponseHeaders().add("Vary", "X-API-Key");
+            exchange.getResponseHeaders().add("Idempotent-Replayed", "true");
+            exchange.getResponseHeaders().add("Proxy-Authenticate", "Basic");
+            exchange.getResponseHeaders().add("Keep-Alive", "timeout=5");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        owner.start();
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadPort = socket.getLocalPort();
+        }
+
+        DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+        when(discoveryClient.getInstances("crud")).thenReturn(List.of(
+                instance(SELF_PORT), instance(owner.getAddress().getPort()), instance(deadPort)));
+        router = new AffinityRouter(discoveryClient, "crud", AffinityRouter.nodeId(HOST, SELF_PORT), 128);
+        router.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.stop(0);
+    }
+
+    @Test
+    void forward_ShouldProxyToOwnerWithRoutingHeaders() throws Exception {
+        long userId = userOwnedBy(owner.getAddress().getPort());
+        MockHttpServletRequest request = request("PUT", userId);
+        request.setContent("{\"age\":31}".getBytes(StandardCharsets.UTF_8));
+        request.setContentType("application/json");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean local = interceptor(AffinityInterceptor.Mode.FORWARD, 2000).preHandle(request, response, null);
+
+        assertFalse(local);
+        assertEquals(200, response.getStatus());
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        assertEquals("{\"age\":31}", receivedHeaders.get("body"));
+        assertEquals("1", receivedHeaders.get("X-affinity-routed"));
+        assertEquals("198.51.100.1, 203.0.113.7", receivedHeaders.get("X-forwarded-for"));
+        assertTrue(Long.parseLong(receivedHeaders.get("X-request-timeout")) <= 2000);
+    }
+
+    @Test
+    void forward_ShouldCopyEndToEndResponseHeadersOnly() throws Exception {
+        long userId = userOwnedBy(owner.getAddress().getPort());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor(AffinityInterceptor.Mode.FORWARD, 2000).preHandle(request("GET", userId), response, null);
+
+        assertEquals("application/json", response.getContentType());
+        assertEquals("/api/users/1", response.getHeader("Location"));
+        assertEquals(List.of("Accept", "X-API-Key"), response.getHeaders("Vary"));
+        assertEquals("true", response.getHeader("Idempotent-Replayed"));
+        assertFalse(response.containsHeader("Proxy-Authenticate"));
+        assertFalse(response.containsHeader("Keep-Alive"));
+        assertFalse(response.containsHeader("Content-Length"));
+    }
+
+    @Test
+    void redirect_ShouldPointClientAtOwner() throws Exception {
+        long userId = userOwnedBy(owner.getAddress().getPort());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean local = interceptor(AffinityInterceptor.Mode.REDIRECT, 2000)
+                .preHandle(request("GET", userId), response, null);
+
+        assertFalse(local);
+        assertEquals(307, response.getStatus());
+        assertEquals("http://" + HOST + ":" + owner.getAddress().getPort() + "/api/users/" + userId,
+                response.getHeader("Location"));
+    }
+
+    @Test
+    void forward_ToSelf_ShouldServeLocally() throws Exception {
+        long userId = userOwnedBy(SELF_PORT);
+
+        assertTrue(interceptor(AffinityInterceptor.Mode.FORWARD, 2000)
+                .preHandle(request("GET", userId), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void forward_WhenOwnerRefusesConnection_ShouldServeWriteLocally() throws Exception {
+        long userId = userOwnedBy(deadPort);
+        MockHttpServletRequest request = request("PUT", userId);
+        request.setContent("{\"age\":31}".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(interceptor(AffinityInterceptor.Mode.FORWARD, 2000)
+                .preHandle(request, new MockHttpServletResponse(), null));
+        assertEquals("{\"age\":31}", new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void forward_WhenOwnerTimesOutOnWrite_ShouldNotRunItLocally() {
+        ownerDelayMillis.set(1000);
+        long userId = userOwnedBy(owner.getAddress().getPort());
+        MockHttpServletRequest request = request("DELETE", userId);
+
+        assertThrows(DeadlineExceededException.class, () -> interceptor(AffinityInterceptor.Mode.FORWARD, 200)
+                .preHandle(request, new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void forward_WhenOwnerTimesOutOnRead_ShouldServeLocally() throws Exception {
+        ownerDelayMillis.set(1000);
+        long userId = userOwnedBy(owner.getAddress().getPort());
+
+        assertTrue(interceptor(AffinityInterceptor.Mode.FORWARD, 200)
+                .preHandle(request("GET", userId), new MockHttpServletResponse(), null));
+    }
+
+    private AffinityInterceptor interceptor(AffinityInterceptor.Mode mode, long timeoutMillis) {
+        return new AffinityInterceptor(router, mode, Duration.ofMillis(timeoutMillis));
+    }
+
+    private long userOwnedBy(int port) {
+        for (long userId = 1; ; userId++) {
+            int ownerPort = router.owns(userId) ? SELF_PORT : router.ownerUri(userId).getPort();
+            if (ownerPort == port) {
+                return userId;
+            }
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/users/" + userId);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", Long.toString(userId)));
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader(AffinityInterceptor.FORWARDED_FOR_HEADER, "198.51.100.1");
+        return request;
+    }
+
+    private static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance("crud-" + port, "crud", HOST, port, false);
+    }
+}
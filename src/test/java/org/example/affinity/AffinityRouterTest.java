@@ -0,0 +1,116 @@
+package org.example.affinity;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AffinityRouterTest {
+
+    private static final int KEYS = 30_000;
+
+    private final List<ServiceInstance> instances = new ArrayList<>();
+    private DiscoveryClient discoveryClient;
+
+    @BeforeEach
+    void setUp() {
+        discoveryClient = mock(DiscoveryClient.class);
+        when(discoveryClient.getInstances("crud")).thenAnswer(invocation -> List.copyOf(instances));
+        for (int port = 8081; port <= 8083; port++) {
+            instances.add(instance(port));
+        }
+    }
+
+    @Test
+    void owns_ShouldAssignEveryUserToExactlyOneInstance() {
+        List<AffinityRouter> routers = routers(8081, 8082, 8083);
+
+        int[] owned = new int[routers.size()];
+        for (long userId = 1; userId <= KEYS; userId++) {
+            int owners = 0;
+            for (int i = 0; i < routers.size(); i++) {
+                if (routers.get(i).owns(userId)) {
+                    owners++;
+                    owned[i]++;
+                }
+            }
+            assertEquals(1, owners);
+        }
+        for (int count : owned) {
+            assertTrue(count > KEYS / 4 && count < KEYS / 2, "unbalanced ring: " + count);
+        }
+    }
+
+    @Test
+    void ownerUri_ShouldPointToOwningInstanceAndBeNullForSelf() {
+        AffinityRouter router = routers(8081).get(0);
+
+        for (long userId = 1; userId <= 100; userId++) {
+            if (router.owns(userId)) {
+                assertNull(router.ownerUri(userId));
+            } else {
+                assertNotEquals(8081, router.ownerUri(userId).getPort());
+            }
+        }
+    }
+
+    @Test
+    void refresh_ShouldOnlyMoveKeysOfDepartedInstance() {
+        AffinityRouter router = routers(8081).get(0);
+        Map<Long, Integer> before = ownerPorts(router);
+
+        instances.removeIf(instance -> instance.getPort() == 8083);
+        router.refresh();
+        Map<Long, Integer> after = ownerPorts(router);
+
+        for (long userId = 1; userId <= KEYS; userId++) {
+            int previous = before.get(userId);
+            if (previous != 8083) {
+                assertEquals(previous, after.get(userId));
+            } else {
+                assertNotEquals(8083, after.get(userId));
+            }
+        }
+    }
+
+    @Test
+    void owns_ShouldServeLocallyWhenNoInstancesAreKnown() {
+        instances.clear();
+        AffinityRouter router = routers(8081).get(0);
+
+        assertTrue(router.owns(42));
+        assertNull(router.ownerUri(42));
+    }
+
+    private List<AffinityRouter> routers(int... ports) {
+        List<AffinityRouter> routers = new ArrayList<>();
+        for (int port : ports) {
+            AffinityRouter router = new AffinityRouter(discoveryClient, "crud", AffinityRouter.nodeId("localhost", port), 128);
+            router.refresh();
+            routers.add(router);
+        }
+        return routers;
+    }
+
+    private static Map<Long, Integer> ownerPorts(AffinityRouter router) {
+        Map<Long, Integer> ports = new HashMap<>();
+        for (long userId = 1; userId <= KEYS; userId++) {
+            ports.put(userId, router.owns(userId) ? 8081 : router.ownerUri(userId).getPort());
+        }
+        return ports;
+    }
+
+    private static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance("crud-" + port, "crud", "localhost", port, false);
+    }
+}
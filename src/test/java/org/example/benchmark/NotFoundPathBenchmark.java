@@ -0,0 +1,85 @@
+package org.example.benchmark;
+
+import org.example.controller.GlobalExceptionHandler;
+import org.example.exception.UserNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serving a 404 for a missing user: throwing from a request-deep stack,
+ * catching it and building the error response. The "legacy" path reproduces the
+ * former stack-capturing exception and per-call timestamp; the "current" path uses
+ * the stackless exception and {@link GlobalExceptionHandler}.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.example.benchmark.NotFoundPathBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundPathBenchmark {
+
+    @Param({"20", "120"})
+    private int stackDepth;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private long id = 999L;
+
+    @Benchmark
+    public Object legacy() {
+        try {
+            throwAt(stackDepth, true);
+            return null;
+        } catch (LegacyUserNotFoundException e) {
+            GlobalExceptionHandler.ErrorResponse errorResponse = new GlobalExceptionHandler.ErrorResponse(
+                    HttpStatus.NOT_FOUND.value(),
+                    e.getMessage(),
+                    LocalDateTime.now()
+            );
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+
+    @Benchmark
+    public Object current() {
+        try {
+            throwAt(stackDepth, false);
+            return null;
+        } catch (UserNotFoundException e) {
+            return handler.handleUserNotFoundException(e);
+        }
+    }
+
+    private void throwAt(int depth, boolean legacy) {
+        if (depth > 0) {
+            throwAt(depth - 1, legacy);
+            return;
+        }
+        if (legacy) {
+            throw new LegacyUserNotFoundException(id);
+        }
+        throw new UserNotFoundException(id);
+    }
+
+    private static class LegacyUserNotFoundException extends RuntimeException {
+        LegacyUserNotFoundException(Long id) {
+            super("User with id " + id + " not found");
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NotFoundPathBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.dto.UserDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class UserCollectionWriterTest {
+
+    private static final String COLLECTION_HREF = "http://localhost:8081/api/users";
+    private static final int USERS = 10_000;
+
+    private ObjectMapper objectMapper;
+    private UserCollectionWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        writer = new UserCollectionWriter(objectMapper);
+    }
+
+    @Test
+    void writeHal_ShouldProduceHalCollection() throws Exception {
+        List<UserDto> users = List.of(
+                new UserDto(1L, "John Doe", "john@example.com", 25, LocalDateTime.of(2024, 1, 15, 10, 30)),
+                new UserDto(2L, "Jane Doe", "jane@example.com", 30, LocalDateTime.of(2024, 1, 16, 11, 0))
+        );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeHal(users.iterator(), COLLECTION_HREF, out);
+
+        JsonNode root = objectMapper.readTree(out.toByteArray());
+        JsonNode embedded = root.path("_embedded").path(UserCollectionWriter.EMBEDDED_REL);
+        assertEquals(2, embedded.size());
+        assertEquals(1L, embedded.get(0).path("id").asLong());
+        assertEquals("John Doe", embedded.get(0).path("name").asText());
+        assertEquals("2024-01-15T10:30:00", embedded.get(0).path("createdAt").asText());
+        assertEquals(COLLECTION_HREF + "/1", embedded.get(0).path("_links").path("self").path("href").asText());
+        assertEquals(COLLECTION_HREF, embedded.get(0).path("_links").path("users").path("href").asText());
+        assertEquals(COLLECTION_HREF + "/2", embedded.get(1).path("_links").path("delete").path("href").asText());
+        assertEquals(COLLECTION_HREF, root.path("_links").path("self").path("href").asText());
+        assertEquals(COLLECTION_HREF, root.path("_links").path("create").path("href").asText());
+    }
+
+    @Test
+    void writeHal_WithEmptyList_ShouldOmitEmbedded() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeHal(Collections.emptyIterator(), COLLECTION_HREF, out);
+
+        JsonNode root = objectMapper.readTree(out.toByteArray());
+        assertFalse(root.has("_embedded"));
+        assertEquals(COLLECTION_HREF, root.path("_links").path("self").path("href").asText());
+    }
+
+    @Test
+    void writePlain_ShouldProduceBareArray() throws Exception {
+        List<UserDto> users = List.of(
+                new UserDto(1L, "John Doe", "john@example.com", 25, LocalDateTime.of(2024, 1, 15, 10, 30))
+        );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writePlain(users.iterator(), out);
+
+        JsonNode root = objectMapper.readTree(out.toByteArray());
+        assertTrue(root.isArray());
+        assertEquals(1, root.size());
+        assertEquals("john@example.com", root.get(0).path("email").asText());
+        assertFalse(root.get(0).has("_links"));
+    }
+
+    @Test
+    void writeHal_TenThousandUsers_ShouldStayWithinSizeAndAllocationBudget() throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = allocationCounter();
+        assumeTrue(threadMXBean != null, "Per-thread allocation cannot be measured on this JVM");
+
+        List<UserDto> users = LongStream.rangeClosed(1, USERS)
+                .mapToObj(id -> new UserDto(id, "User " + id, "user" + id + "@example.com", 30,
+                        LocalDateTime.of(2024, 1, 15, 10, 30)))
+                .toList();
+
+        // warm up so class loading, JIT and buffer recycler setup are not counted
+        for (int i = 0; i < 5; i++) {
+            writer.writeHal(users.iterator(), COLLECTION_HREF, OutputStream.nullOutputStream());
+        }
+
+        CountingOutputStream raw = new CountingOutputStream(OutputStream.nullOutputStream());
+        writer.writeHal(users.iterator(), COLLECTION_HREF, raw);
+        // the minimum of a few runs leaves out allocations by JIT or GC bookkeeping on this thread
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long before = threadMXBean.getCurrentThreadAllocatedBytes();
+            writer.writeHal(users.iterator(), COLLECTION_HREF, OutputStream.nullOutputStream());
+            allocated = Math.min(allocated, threadMXBean.getCurrentThreadAllocatedBytes() - before);
+        }
+
+        CountingOutputStream compressed = new CountingOutputStream(OutputStream.nullOutputStream());
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            writer.writeHal(users.iterator(), COLLECTION_HREF, gzip);
+        }
+
+        long bytesPerUser = raw.count / USERS;
+        assertTrue(bytesPerUser > 200 && bytesPerUser < 500, "Unexpected HAL size per user: " + bytesPerUser);
+        assertTrue(compressed.count * 4 < raw.count, "HAL links should compress well");
+        // what remains is mostly DateTimeFormatter's per-call print context
+        assertTrue(allocated < 2 * raw.count,
+                "Streaming should allocate less than twice the output, allocated " + allocated + " bytes");
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+                && threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return threadMXBean;
+        }
+        return null;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private final OutputStream delegate;
+        private long count;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+    }
+}
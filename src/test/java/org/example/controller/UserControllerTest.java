@@ -5,18 +5,29 @@ import org.example.dto.CreateUserDto;
 import org.example.dto.UpdateUserDto;
 import org.example.dto.UserDto;
 import org.example.exception.UserNotFoundException;
+import org.example.dto.UserStatsDto;
+import org.example.dto.UserSuggestionDto;
+import org.example.service.UserNameIndex;
 import org.example.service.UserService;
+import org.example.service.UserStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -24,7 +35,8 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(UserController.class)
+@WebMvcTest(controllers = UserController.class, properties = "app.rate-limit.api-keys=burst-client")
+@Import(UserCollectionWriter.class)
 class UserControllerTest {
 
     @Autowired
@@ -33,6 +45,12 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserStatsService userStatsService;
+
+    @MockBean
+    private UserNameIndex userNameIndex;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -89,6 +107,57 @@ class UserControllerTest {
         verify(userService, times(1)).getUserById(1L);
     }
 
+    @Test
+    void getUserByEmail_ShouldReturnUserWithSelfLinkById() throws Exception {
+        when(userService.getUserByEmail("John@Example.com")).thenReturn(userDto);
+
+        mockMvc.perform(get("/api/users/by-email/John@Example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.email").value("john@example.com"))
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/api/users/1"));
+
+        verify(userService, times(1)).getUserByEmail("John@Example.com");
+    }
+
+    @Test
+    void suggestUsers_ShouldReturnBoundedMatchesFromIndex() throws Exception {
+        when(userNameIndex.suggest("Jo", 50)).thenReturn(List.of(new UserSuggestionDto(1L, "John Doe")));
+
+        mockMvc.perform(get("/api/users/suggest").param("prefix", " Jo ").param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].name").value("John Doe"));
+
+        verify(userNameIndex, times(1)).suggest("Jo", 50);
+    }
+
+    @Test
+    void suggestUsers_WithBlankPrefix_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/suggest").param("prefix", " "))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userNameIndex);
+    }
+
+    @Test
+    void getUserById_WithExpiredDeadline_ShouldReturnGatewayTimeout() throws Exception {
+        mockMvc.perform(get("/api/users/1").header("X-Request-Timeout", "0"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.status").value(504));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void getUserById_WithQueryTimeout_ShouldReturnGatewayTimeout() throws Exception {
+        when(userService.getUserById(1L)).thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+
+        mockMvc.perform(get("/api/users/1").header("X-Request-Timeout", "200"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.message").value("Request deadline exceeded"));
+    }
+
     @Test
     void getUserById_WithNonExistentId_ShouldReturnNotFound() throws Exception {
         when(userService.getUserById(999L))
@@ -106,17 +175,94 @@ class UserControllerTest {
         UserDto userDto2 = new UserDto(2L, "Jane Doe", "jane@example.com", 30, LocalDateTime.now());
         List<UserDto> users = Arrays.asList(userDto, userDto2);
 
-        when(userService.getAllUsers()).thenReturn(users);
+        stubAllUsers(users);
 
-        mockMvc.perform(get("/api/users"))
+        MvcResult result = mockMvc.perform(get("/api/users"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaTypes.HAL_JSON))
+                .andExpect(jsonPath("$._embedded.userDtoList.length()").value(2))
+                .andExpect(jsonPath("$._embedded.userDtoList[0].id").value(1L))
+                .andExpect(jsonPath("$._embedded.userDtoList[0].name").value("John Doe"))
+                .andExpect(jsonPath("$._embedded.userDtoList[0]._links.self.href").value("http://localhost/api/users/1"))
+                .andExpect(jsonPath("$._embedded.userDtoList[1].id").value(2L))
+                .andExpect(jsonPath("$._embedded.userDtoList[1].name").value("Jane Doe"))
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/api/users"));
+
+        verify(userService, times(1)).streamAllUsers(any());
+    }
+
+    @Test
+    void getUserById_WithPlainJsonAccept_ShouldReturnBareUser() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(userDto);
+
+        mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$._links").doesNotExist());
+    }
+
+    @Test
+    void getUserById_WithHalAccept_ShouldReturnLinks() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(userDto);
+
+        mockMvc.perform(get("/api/users/1").accept(MediaTypes.HAL_JSON, MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/api/users/1"));
+    }
+
+    @Test
+    void getAllUsers_WithPlainJsonAccept_ShouldReturnBareArray() throws Exception {
+        UserDto userDto2 = new UserDto(2L, "Jane Doe", "jane@example.com", 30, LocalDateTime.now());
+        stubAllUsers(Arrays.asList(userDto, userDto2));
+
+        MvcResult result = mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[0].name").value("John Doe"))
-                .andExpect(jsonPath("$[1].id").value(2L))
+                .andExpect(jsonPath("$[0]._links").doesNotExist())
                 .andExpect(jsonPath("$[1].name").value("Jane Doe"));
+    }
+
+    @Test
+    void getAllUsers_OverExpensiveBudget_ShouldReturnTooManyRequests() throws Exception {
+        stubAllUsers(List.of(userDto));
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/api/users").header("X-API-Key", "burst-client"))
+                    .andExpect(request().asyncStarted());
+        }
+
+        mockMvc.perform(get("/api/users").header("X-API-Key", "burst-client"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.status").value(429));
+    }
+
+    @Test
+    void getUserStats_ShouldReturnAggregates() throws Exception {
+        UserStatsDto stats = new UserStatsDto(2L, Map.of("25-34", 2L), Map.of("2024-01-15", 2L), LocalDateTime.now());
+        when(userStatsService.getStats()).thenReturn(stats);
 
-        verify(userService, times(1)).getAllUsers();
+        mockMvc.perform(get("/api/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount").value(2))
+                .andExpect(jsonPath("$.ageHistogram['25-34']").value(2))
+                .andExpect(jsonPath("$.createdPerDay['2024-01-15']").value(2));
+
+        verify(userService, never()).streamAllUsers(any());
     }
 
     @Test
@@ -184,4 +330,11 @@ class UserControllerTest {
 
         verify(userService, times(1)).deleteUser(999L);
     }
+
+    private void stubAllUsers(List<UserDto> users) throws IOException {
+        doAnswer(invocation -> {
+            invocation.<UserService.UsersWriter>getArgument(0).write(users.iterator());
+            return null;
+        }).when(userService).streamAllUsers(any());
+    }
 }
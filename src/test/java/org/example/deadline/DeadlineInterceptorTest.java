@@ -0,0 +1,85 @@
+package org.example.deadline;
+
+import org.example.exception.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineInterceptorTest {
+
+    private final DeadlineInterceptor interceptor = new DeadlineInterceptor(5000, 30000);
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void preHandle_ShouldUseHeaderCappedAtMaximum() {
+        request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, "120000");
+
+        interceptor.preHandle(request, response, handler("annotated"));
+
+        long remaining = RequestDeadline.current().remainingMillis();
+        assertTrue(remaining > 29000 && remaining <= 30000);
+        assertEquals(800, RequestDeadline.remainingMillisOr(800));
+    }
+
+    @Test
+    void preHandle_ShouldFallBackToHandlerThenDefaultTimeout() {
+        interceptor.preHandle(request, response, handler("annotated"));
+        assertTrue(RequestDeadline.current().remainingMillis() > 14000);
+
+        interceptor.preHandle(request, response, handler("plain"));
+        long remaining = RequestDeadline.current().remainingMillis();
+        assertTrue(remaining > 4000 && remaining <= 5000);
+
+        interceptor.afterCompletion(request, response, handler("plain"), null);
+        assertNull(RequestDeadline.current());
+        assertEquals(800, RequestDeadline.remainingMillisOr(800));
+    }
+
+    @Test
+    void afterConcurrentHandlingStarted_ShouldReleaseDeadlineFromThread() {
+        interceptor.preHandle(request, response, handler("plain"));
+        assertNotNull(RequestDeadline.current());
+
+        interceptor.afterConcurrentHandlingStarted(request, response, handler("plain"));
+
+        assertNull(RequestDeadline.current());
+    }
+
+    @Test
+    void preHandle_ShouldRejectExpiredOrMalformedHeader() {
+        request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, "0");
+        assertThrows(DeadlineExceededException.class, () -> interceptor.preHandle(request, response, handler("plain")));
+
+        MockHttpServletRequest malformed = new MockHttpServletRequest("GET", "/api/users");
+        malformed.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, "soon");
+        assertThrows(IllegalArgumentException.class, () -> interceptor.preHandle(malformed, response, handler("plain")));
+        assertNull(RequestDeadline.current());
+    }
+
+    private static HandlerMethod handler(String name) {
+        try {
+            return new HandlerMethod(new Handlers(), Handlers.class.getDeclaredMethod(name));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class Handlers {
+        @RequestTimeout(millis = 15000)
+        void annotated() {
+        }
+
+        void plain() {
+        }
+    }
+}
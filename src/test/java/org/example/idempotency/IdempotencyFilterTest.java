@@ -0,0 +1,180 @@
+package org.example.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.ratelimit.ClientKeyResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean blockHandler;
+    private volatile int handlerStatus = 201;
+
+    private InMemoryIdempotencyStore store;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryIdempotencyStore(100, Duration.ofMinutes(5));
+        filter = new IdempotencyFilter(store, new ObjectMapper().registerModule(new JavaTimeModule()),
+                new ClientKeyResolver(Set.of("registered-client")), Duration.ofSeconds(5), 1024);
+    }
+
+    @Test
+    void retry_ShouldReplayStoredResponseWithoutCallingHandler() throws Exception {
+        MockHttpServletResponse first = perform("key-1", "{\"name\":\"John\"}");
+        MockHttpServletResponse retry = perform("key-1", "{\"name\":\"John\"}");
+
+        assertEquals(1, invocations.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("application/json", retry.getContentType());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void reusedKeyWithDifferentBody_ShouldBeRejected() throws Exception {
+        perform("key-1", "{\"name\":\"John\"}");
+        MockHttpServletResponse conflicting = perform("key-1", "{\"name\":\"Jane\"}");
+
+        assertEquals(422, conflicting.getStatus());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void serverError_ShouldNotBeStoredSoRetryRunsAgain() throws Exception {
+        handlerStatus = 503;
+        perform("key-1", "{}");
+        handlerStatus = 201;
+        MockHttpServletResponse retry = perform("key-1", "{}");
+
+        assertEquals(2, invocations.get());
+        assertEquals(201, retry.getStatus());
+    }
+
+    @Test
+    void concurrentDuplicate_ShouldWaitForInFlightRequest() throws Exception {
+        blockHandler = true;
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> performUnchecked("key-1"));
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> performUnchecked("key-1"));
+
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+        MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(201, replayed.getStatus());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void oversizedBody_ShouldBeRejectedWithoutCallingHandler() throws Exception {
+        MockHttpServletResponse response = perform("key-1", "{\"name\":\"" + "x".repeat(2048) + "\"}");
+
+        assertEquals(413, response.getStatus());
+        assertEquals(0, invocations.get());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void sameKeyWithDifferentAccept_ShouldNotReplayOtherRepresentation() throws Exception {
+        perform("key-1", "{}", "application/json");
+        MockHttpServletResponse hal = perform("key-1", "{}", "application/hal+json");
+
+        assertEquals(2, invocations.get());
+        assertNull(hal.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void unregisteredApiKey_ShouldNotOpenScopeOfItsOwn() throws Exception {
+        perform("key-1", "{}", null, "invented-1");
+        MockHttpServletResponse invented = perform("key-1", "{}", null, "invented-2");
+        MockHttpServletResponse registered = perform("key-1", "{}", null, "registered-client");
+
+        assertEquals("true", invented.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(registered.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, invocations.get());
+    }
+
+    @Test
+    void requestsWithoutKey_ShouldPassThrough() throws Exception {
+        perform(null, "{}");
+        perform(null, "{}");
+
+        assertEquals(2, invocations.get());
+        assertEquals(0, store.size());
+    }
+
+    private MockHttpServletResponse performUnchecked(String key) {
+        try {
+            return perform(key, "{}");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MockHttpServletResponse perform(String key, String body) throws Exception {
+        return perform(key, body, null);
+    }
+
+    private MockHttpServletResponse perform(String key, String body, String accept) throws Exception {
+        return perform(key, body, accept, null);
+    }
+
+    private MockHttpServletResponse perform(String key, String body, String accept, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users");
+        if (apiKey != null) {
+            request.addHeader(ClientKeyResolver.API_KEY_HEADER, apiKey);
+        }
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                int call = invocations.incrementAndGet();
+                if (blockHandler) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                String received = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                resp.setStatus(handlerStatus);
+                resp.setContentType("application/json");
+                resp.getWriter().write("{\"call\":" + call + ",\"body\":" + received + "}");
+            }
+        }));
+        return response;
+    }
+}
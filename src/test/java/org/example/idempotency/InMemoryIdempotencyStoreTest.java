@@ -0,0 +1,61 @@
+package org.example.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryIdempotencyStoreTest {
+
+    private static final StoredResponse CREATED = new StoredResponse(201, "application/json", null, new byte[0]);
+
+    @Test
+    void begin_ShouldEvictOldestCompletedEntriesWhenFull() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, Duration.ofMinutes(5));
+        for (String key : new String[] {"a", "b", "c"}) {
+            IdempotencyStore.Outcome outcome = store.begin(key, "fp", Duration.ZERO);
+            assertEquals(IdempotencyStore.Status.ACQUIRED, outcome.status());
+            assertTrue(store.complete(key, outcome.owner(), CREATED));
+        }
+
+        assertEquals(2, store.size());
+        assertEquals(IdempotencyStore.Status.ACQUIRED, store.begin("a", "fp", Duration.ZERO).status());
+        assertEquals(IdempotencyStore.Status.REPLAY, store.begin("c", "fp", Duration.ZERO).status());
+    }
+
+    @Test
+    void begin_ShouldReportInProgressAndNeverEvictInFlightEntries() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(1, Duration.ofMinutes(5));
+        String owner = store.begin("a", "fp", Duration.ZERO).owner();
+        store.begin("b", "fp", Duration.ZERO);
+
+        assertEquals(IdempotencyStore.Status.IN_PROGRESS, store.begin("a", "fp", Duration.ofMillis(20)).status());
+
+        store.abandon("a", owner);
+        assertEquals(IdempotencyStore.Status.ACQUIRED, store.begin("a", "fp", Duration.ZERO).status());
+    }
+
+    @Test
+    void completeAndAbandon_WithAnotherOwner_ShouldLeaveKeyAlone() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ofMinutes(5));
+        String owner = store.begin("a", "fp", Duration.ZERO).owner();
+
+        store.abandon("a", "someone-else");
+        assertFalse(store.complete("a", "someone-else", CREATED));
+
+        assertEquals(IdempotencyStore.Status.IN_PROGRESS, store.begin("a", "fp", Duration.ZERO).status());
+        assertTrue(store.complete("a", owner, CREATED));
+        assertEquals(IdempotencyStore.Status.REPLAY, store.begin("a", "fp", Duration.ZERO).status());
+    }
+
+    @Test
+    void evictExpired_ShouldDropEntriesPastTheirTtl() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10, Duration.ZERO);
+        store.complete("a", store.begin("a", "fp", Duration.ZERO).owner(), CREATED);
+
+        store.evictExpired();
+
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.idempotency;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class JdbcIdempotencyStoreTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+
+    private static final StoredResponse CREATED = new StoredResponse(201, "application/json", "/api/users/1",
+            "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void begin_AfterComplete_ShouldReplayStoredResponse() {
+        JdbcIdempotencyStore store = store(Duration.ofSeconds(30));
+        IdempotencyStore.Outcome first = store.begin(key("replay"), "fp", Duration.ZERO);
+        assertEquals(IdempotencyStore.Status.ACQUIRED, first.status());
+        assertEquals(IdempotencyStore.Status.IN_PROGRESS, store.begin(key("replay"), "fp", Duration.ZERO).status());
+
+        assertTrue(store.complete(key("replay"), first.owner(), CREATED));
+
+        IdempotencyStore.Outcome retry = store.begin(key("replay"), "fp", Duration.ZERO);
+        assertEquals(IdempotencyStore.Status.REPLAY, retry.status());
+        assertEquals(201, retry.response().status());
+        assertEquals("/api/users/1", retry.response().location());
+        assertArrayEquals(CREATED.body(), retry.response().body());
+    }
+
+    @Test
+    void begin_WithDifferentFingerprint_ShouldReportMismatch() {
+        JdbcIdempotencyStore store = store(Duration.ofSeconds(30));
+        store.complete(key("mismatch"), store.begin(key("mismatch"), "fp", Duration.ZERO).owner(), CREATED);
+
+        assertEquals(IdempotencyStore.Status.MISMATCH, store.begin(key("mismatch"), "other", Duration.ZERO).status());
+    }
+
+    @Test
+    void begin_AfterLeaseExpires_ShouldHandKeyOverAndRejectStaleOwner() throws Exception {
+        JdbcIdempotencyStore store = store(Duration.ofMillis(200));
+        String stale = store.begin(key("expiry"), "fp", Duration.ZERO).owner();
+        TimeUnit.MILLISECONDS.sleep(400);
+
+        IdempotencyStore.Outcome takeover = store.begin(key("expiry"), "fp", Duration.ZERO);
+        assertEquals(IdempotencyStore.Status.ACQUIRED, takeover.status());
+
+        store.abandon(key("expiry"), stale);
+        assertFalse(store.complete(key("expiry"), stale, CREATED));
+        assertTrue(store.complete(key("expiry"), takeover.owner(), CREATED));
+        assertEquals(IdempotencyStore.Status.REPLAY, store.begin(key("expiry"), "fp", Duration.ZERO).status());
+    }
+
+    @Test
+    void renewLeases_ShouldKeepKeyWhileRequestRuns() throws Exception {
+        JdbcIdempotencyStore store = store(Duration.ofSeconds(1));
+        String owner = store.begin(key("renew"), "fp", Duration.ZERO).owner();
+        TimeUnit.MILLISECONDS.sleep(600);
+        store.renewLeases();
+        TimeUnit.MILLISECONDS.sleep(600);
+
+        assertEquals(IdempotencyStore.Status.IN_PROGRESS, store.begin(key("renew"), "fp", Duration.ZERO).status());
+        assertTrue(store.complete(key("renew"), owner, CREATED));
+    }
+
+    private static JdbcIdempotencyStore store(Duration lease) {
+        return new JdbcIdempotencyStore(jdbcTemplate, Duration.ofMinutes(5), lease);
+    }
+
+    private static String key(String name) {
+        return String.format("%-64s", name).replace(' ', '0');
+    }
+}
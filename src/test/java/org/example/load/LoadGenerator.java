@@ -0,0 +1,180 @@
+package org.example.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load driver. Requests are issued on a fixed schedule regardless of how
+ * fast the server answers, and latency is measured from each request's intended
+ * start time, so queueing caused by a slow server is recorded instead of hidden
+ * (coordinated omission correction).
+ */
+final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final URI usersUri;
+    private final WorkloadMix mix;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private AtomicLongArray liveIds;
+    // requests intended to start earlier belong to the warmup and are not recorded
+    private volatile long measureFrom;
+
+    LoadGenerator(URI baseUri, WorkloadMix mix) {
+        this.usersUri = baseUri.resolve("/api/users");
+        this.mix = mix;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void seed(int users) throws Exception {
+        liveIds = new AtomicLongArray(users);
+        for (int i = 0; i < users; i++) {
+            HttpResponse<String> response = httpClient.send(createRequest(), HttpResponse.BodyHandlers.ofString());
+            liveIds.set(i, readId(response.body()));
+        }
+    }
+
+    LoadResult run(int requestsPerSecond, Duration duration, Duration warmup) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long start = warmupEnd;
+        long end = start + duration.toNanos();
+
+        histograms.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+        measureFrom = start;
+        drive(System.nanoTime(), warmupEnd, intervalNanos, false);
+
+        long issued = drive(start, end, intervalNanos, true);
+        long elapsed = System.nanoTime() - start;
+        return new LoadResult(requestsPerSecond, issued, elapsed, mix.toString(), histograms, errors);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private long drive(long start, long end, long intervalNanos, boolean awaitCompletion) throws InterruptedException {
+        ConcurrentLinkedQueue<CompletableFuture<?>> inFlight = new ConcurrentLinkedQueue<>();
+        long issued = 0;
+        for (long intendedStart = start; intendedStart < end; intendedStart += intervalNanos) {
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            inFlight.add(issue(mix.next(), intendedStart));
+            issued++;
+            if ((issued & 1023) == 0) {
+                inFlight.removeIf(CompletableFuture::isDone);
+            }
+        }
+        if (awaitCompletion) {
+            for (CompletableFuture<?> future : inFlight) {
+                try {
+                    future.get(HIGHEST_TRACKABLE_NANOS, TimeUnit.NANOSECONDS);
+                } catch (Exception ignored) {
+                    // already counted as an error by the completion callback
+                }
+            }
+        }
+        return issued;
+    }
+
+    private CompletableFuture<?> issue(Operation operation, long intendedStart) {
+        int slot = ThreadLocalRandom.current().nextInt(liveIds.length());
+        long id = liveIds.get(slot);
+        HttpRequest request = switch (operation) {
+            case BY_ID -> get(usersUri.resolve("/api/users/" + id));
+            case LIST -> get(usersUri);
+            case CREATE -> createRequest();
+            case UPDATE -> HttpRequest.newBuilder(usersUri.resolve("/api/users/" + id))
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"age\":" + (18 + (id % 60)) + "}"))
+                    .build();
+            case DELETE -> HttpRequest.newBuilder(usersUri.resolve("/api/users/" + id)).DELETE().build();
+        };
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, failure) -> {
+                    boolean measured = intendedStart - measureFrom >= 0;
+                    if (measured) {
+                        long latency = Math.min(System.nanoTime() - intendedStart, HIGHEST_TRACKABLE_NANOS);
+                        histograms.get(operation).recordValue(latency);
+                    }
+                    if (failure != null || response.statusCode() >= 500) {
+                        if (measured) {
+                            errors.get(operation).increment();
+                        }
+                        return;
+                    }
+                    // deleted ids stay in their slot until a create replaces them, which
+                    // keeps a realistic share of 404 lookups in the mix
+                    if (operation == Operation.CREATE && response.statusCode() == 201) {
+                        liveIds.set(slot, readId(response.body()));
+                    }
+                });
+    }
+
+    private HttpRequest get(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest createRequest() {
+        long sequence = emailSequence.incrementAndGet();
+        String body = "{\"name\":\"Load User " + sequence + "\","
+                + "\"email\":\"load-" + runId + "-" + sequence + "@example.com\","
+                + "\"age\":30}";
+        return HttpRequest.newBuilder(usersUri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private long readId(String body) {
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            return node.path("id").asLong();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+final class LoadResult {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final int targetRate;
+    private final long issued;
+    private final long elapsedNanos;
+    private final String mix;
+    private final Map<Operation, Histogram> histograms;
+    private final Map<Operation, LongAdder> errors;
+
+    LoadResult(int targetRate, long issued, long elapsedNanos, String mix,
+               Map<Operation, Histogram> histograms, Map<Operation, LongAdder> errors) {
+        this.targetRate = targetRate;
+        this.issued = issued;
+        this.elapsedNanos = elapsedNanos;
+        this.mix = mix;
+        this.histograms = histograms;
+        this.errors = errors;
+    }
+
+    long totalRecorded() {
+        return histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    double throughput() {
+        return totalRecorded() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Writes a human readable report plus a one-line-per-operation CSV into
+     * {@code directory}, both tagged with {@code label} so runs of different
+     * versions can be compared side by side.
+     */
+    Path write(Path directory, String label) throws IOException {
+        Files.createDirectories(directory);
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path report = directory.resolve("load-" + label + "-" + stamp + ".txt");
+        Path csv = directory.resolve("load-" + label + "-" + stamp + ".csv");
+
+        try (PrintStream out = new PrintStream(Files.newOutputStream(report))) {
+            out.printf("label=%s target_rate=%d/s issued=%d throughput=%.1f/s errors=%d mix=%s%n",
+                    label, targetRate, issued, throughput(), totalErrors(), mix);
+            for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+                if (entry.getValue().getTotalCount() == 0) {
+                    continue;
+                }
+                out.printf("%n== %s (latency in ms, corrected for coordinated omission)%n", entry.getKey());
+                entry.getValue().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+
+        try (PrintStream out = new PrintStream(Files.newOutputStream(csv))) {
+            out.println("label,operation,count,errors,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+            for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+                Histogram histogram = entry.getValue();
+                out.printf("%s,%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        label,
+                        entry.getKey(),
+                        histogram.getTotalCount(),
+                        errors.get(entry.getKey()).sum(),
+                        histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                        histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                        histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                        histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                        histogram.getMaxValue() / NANOS_PER_MILLI);
+            }
+        }
+        return report;
+    }
+}
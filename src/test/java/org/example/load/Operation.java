@@ -0,0 +1,9 @@
+package org.example.load;
+
+enum Operation {
+    BY_ID,
+    LIST,
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,78 @@
+package org.example.load;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application against containerized Postgres and Kafka and drives it
+ * with an open-loop workload. Excluded from the default build; run with
+ * <pre>
+ * mvn test -Pload-test -Dload.rate=200 -Dload.duration=60 \
+ *     -Dload.mix=by_id:60,list:5,create:15,update:15,delete:5 -Dload.label=v1.0
+ * </pre>
+ * Reports are written to {@code target/load-reports}.
+ */
+@Testcontainers
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "app.rate-limit.enabled=false",
+                "app.mail.enabled=false",
+                "spring.jpa.show-sql=false"
+        })
+class UserApiLoadTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+
+    @Container
+    static final KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+
+    @DynamicPropertySource
+    static void containerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void runWorkload() throws Exception {
+        int rate = Integer.getInteger("load.rate", 100);
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 30L));
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 10L));
+        int seedUsers = Integer.getInteger("load.seed-users", 1000);
+        WorkloadMix mix = WorkloadMix.parse(System.getProperty("load.mix", "by_id:60,list:5,create:15,update:15,delete:5"));
+        String label = System.getProperty("load.label", "local");
+
+        LoadGenerator generator = new LoadGenerator(URI.create("http://localhost:" + port), mix);
+        try {
+            generator.seed(seedUsers);
+            LoadResult result = generator.run(rate, duration, warmup);
+            Path report = result.write(Path.of("target", "load-reports"), label);
+
+            System.out.printf("Load report written to %s (throughput=%.1f/s, errors=%d)%n",
+                    report.toAbsolutePath(), result.throughput(), result.totalErrors());
+            assertTrue(result.totalRecorded() > 0);
+        } finally {
+            generator.shutdown();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+    private ClientRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new ClientRateLimiter(true, 100, 0.25)
+                .budget(RateLimitTier.CHEAP, 10, 3)
+                .budget(RateLimitTier.EXPENSIVE, 1, 1);
+    }
+
+    @Test
+    void tryAcquire_ShouldAdmitBurstThenReject() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client", RateLimitTier.CHEAP));
+        }
+
+        long waitNanos = rateLimiter.tryAcquire("client", RateLimitTier.CHEAP);
+        assertTrue(waitNanos > 0);
+        assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepSeparateBudgetsPerClientAndTier() {
+        assertEquals(0, rateLimiter.tryAcquire("client", RateLimitTier.EXPENSIVE));
+        assertTrue(rateLimiter.tryAcquire("client", RateLimitTier.EXPENSIVE) > 0);
+
+        assertEquals(0, rateLimiter.tryAcquire("other", RateLimitTier.EXPENSIVE));
+        assertEquals(0, rateLimiter.tryAcquire("client", RateLimitTier.CHEAP));
+    }
+
+    @Test
+    void recordLatency_AboveTarget_ShouldTightenLimits() {
+        assertEquals(1.0, rateLimiter.getFactor());
+
+        rateLimiter.recordLatency(TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0.5, rateLimiter.getFactor(), 0.01);
+
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.recordLatency(TimeUnit.SECONDS.toNanos(5));
+        }
+        assertEquals(0.25, rateLimiter.getFactor());
+
+        for (int i = 0; i < 200; i++) {
+            rateLimiter.recordLatency(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertEquals(1.0, rateLimiter.getFactor());
+    }
+
+    @Test
+    void evictFullBuckets_ShouldKeepBucketsThatAreStillDraining() {
+        assertEquals(0, rateLimiter.tryAcquire("client", RateLimitTier.EXPENSIVE));
+
+        rateLimiter.evictFullBuckets();
+
+        assertTrue(rateLimiter.tryAcquire("client", RateLimitTier.EXPENSIVE) > 0);
+    }
+
+    @Test
+    void tryAcquire_OverClientCap_ShouldShareOverflowBucket() {
+        rateLimiter.maxClients(2);
+        assertEquals(0, rateLimiter.tryAcquire("first", RateLimitTier.EXPENSIVE));
+        assertEquals(0, rateLimiter.tryAcquire("second", RateLimitTier.EXPENSIVE));
+
+        assertEquals(0, rateLimiter.tryAcquire("third", RateLimitTier.EXPENSIVE));
+        assertTrue(rateLimiter.tryAcquire("fourth", RateLimitTier.EXPENSIVE) > 0);
+        assertEquals(2, rateLimiter.trackedClients(RateLimitTier.EXPENSIVE));
+    }
+}
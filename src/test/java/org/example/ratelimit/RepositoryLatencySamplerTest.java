@@ -0,0 +1,39 @@
+package org.example.ratelimit;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryLatencySamplerTest {
+
+    @Test
+    void sample_ShouldFeedMeanRepositoryLatencySinceLastSample() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(true, 100, 0.25)
+                .budget(RateLimitTier.CHEAP, 10, 3);
+        RepositoryLatencySampler sampler = new RepositoryLatencySampler(meterRegistry, rateLimiter);
+        Timer findById = timer(meterRegistry, "findById");
+        Timer save = timer(meterRegistry, "save");
+
+        findById.record(100, TimeUnit.MILLISECONDS);
+        save.record(300, TimeUnit.MILLISECONDS);
+        sampler.sample();
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), rateLimiter.getLatencyEwmaNanos());
+        assertEquals(0.5, rateLimiter.getFactor(), 0.01);
+
+        // no repository calls since the last sample: nothing to feed
+        sampler.sample();
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), rateLimiter.getLatencyEwmaNanos());
+    }
+
+    private static Timer timer(SimpleMeterRegistry meterRegistry, String method) {
+        return Timer.builder(RepositoryLatencySampler.REPOSITORY_TIMER)
+                .tag("repository", "UserRepository")
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the migrations against a database whose users table was created by Hibernate
+ * ddl-auto before Flyway owned the schema.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class FlywayLegacySchemaMigrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+
+    @Test
+    void migrate_WithHibernateCreatedUsersTable_ShouldMoveRowsIntoPartitionedTable() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE users (
+                    age integer not null,
+                    created_at timestamp(6) not null,
+                    id bigint generated by default as identity,
+                    email varchar(255) not null unique,
+                    name varchar(255) not null,
+                    primary key (id)
+                )""");
+        jdbcTemplate.update("INSERT INTO users (name, email, age, created_at) VALUES "
+                + "('John Doe', 'John@Example.com', 25, now()), ('Jane Doe', 'jane@example.com', 30, now())");
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        Integer partitions = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = 'users'::regclass", Integer.class);
+        assertEquals(8, partitions);
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass('public.users_legacy')", String.class));
+        assertEquals(List.of("jane@example.com", "john@example.com"),
+                jdbcTemplate.queryForList("SELECT email FROM user_emails ORDER BY email", String.class));
+
+        Long id = jdbcTemplate.queryForObject("INSERT INTO users (name, email, age, created_at, updated_at) "
+                + "VALUES ('Mary Doe', 'mary@example.com', 40, now(), now()) RETURNING id", Long.class);
+        assertEquals(3L, id);
+    }
+}
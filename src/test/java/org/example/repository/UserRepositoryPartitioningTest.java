@@ -0,0 +1,164 @@
+package org.example.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.User;
+import org.example.dto.UserDto;
+import org.example.service.UserPurger;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserRepositoryPartitioningTest {
+
+    private static final Pattern PARTITION = Pattern.compile("users_p\\d+");
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void usersTable_ShouldBeHashPartitioned() {
+        Integer partitions = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = 'users'::regclass", Integer.class);
+
+        assertEquals(8, partitions);
+    }
+
+    @Test
+    void lookupById_ShouldPruneToSinglePartition() {
+        User saved = userRepository.saveAndFlush(newUser("john@example.com"));
+
+        assertEquals(1, scannedPartitions("EXPLAIN SELECT * FROM users WHERE id = " + saved.getId()));
+        assertEquals(1, scannedPartitions("EXPLAIN UPDATE users SET age = 31 WHERE id = " + saved.getId()));
+        assertEquals(1, scannedPartitions("EXPLAIN DELETE FROM users WHERE id = " + saved.getId()));
+        assertTrue(userRepository.findById(saved.getId()).isPresent());
+    }
+
+    @Test
+    void existsByEmail_ShouldUseLookupTable() {
+        User saved = userRepository.saveAndFlush(newUser("john@example.com"));
+
+        assertTrue(userRepository.existsByEmail("john@example.com"));
+        assertFalse(userRepository.existsByEmail("jane@example.com"));
+
+        saved.setEmail("jane@example.com");
+        userRepository.saveAndFlush(saved);
+        assertFalse(userRepository.existsByEmail("john@example.com"));
+        assertTrue(userRepository.existsByEmail("jane@example.com"));
+
+        userRepository.delete(saved);
+        userRepository.flush();
+        assertFalse(userRepository.existsByEmail("jane@example.com"));
+    }
+
+    @Test
+    void duplicateEmail_ShouldBeRejectedAcrossPartitions() {
+        userRepository.saveAndFlush(newUser("john@example.com"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(newUser("john@example.com")));
+    }
+
+    @Test
+    void softDeleteById_ShouldHideUserAndReleaseEmail() {
+        User saved = userRepository.saveAndFlush(newUser("john@example.com"));
+
+        User deleted = userRepository.softDeleteById(saved.getId()).orElseThrow();
+        assertEquals("john@example.com", deleted.getEmail());
+        assertTrue(userRepository.softDeleteById(saved.getId()).isEmpty());
+        entityManager.clear();
+
+        assertTrue(userRepository.findById(saved.getId()).isEmpty());
+        assertTrue(userRepository.findAll().isEmpty());
+        assertFalse(userRepository.existsByEmail("john@example.com"));
+        assertDoesNotThrow(() -> userRepository.saveAndFlush(newUser("john@example.com")));
+    }
+
+    @Test
+    void streamAll_ShouldReturnLiveUsersInIdOrderWithoutManagingThem() {
+        User john = userRepository.saveAndFlush(newUser("john@example.com"));
+        User jane = userRepository.saveAndFlush(newUser("jane@example.com"));
+        User deleted = userRepository.saveAndFlush(newUser("mary@example.com"));
+        userRepository.softDeleteById(deleted.getId());
+        entityManager.clear();
+
+        List<UserDto> streamed;
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            streamed = users.toList();
+        }
+
+        assertEquals(List.of(john.getId(), jane.getId()), streamed.stream().map(UserDto::getId).toList());
+        assertEquals("jane@example.com", streamed.get(1).getEmail());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void purger_ShouldHardDeleteOnlyExpiredSoftDeletedUsers() {
+        User expired = userRepository.saveAndFlush(newUser("john@example.com"));
+        User recent = userRepository.saveAndFlush(newUser("jane@example.com"));
+        User live = userRepository.saveAndFlush(newUser("mary@example.com"));
+        userRepository.softDeleteById(expired.getId());
+        userRepository.softDeleteById(recent.getId());
+        jdbcTemplate.update("UPDATE users SET deleted_at = now() - interval '1 hour' WHERE id = ?", expired.getId());
+
+        UserPurger purger = new UserPurger(jdbcTemplate, dataSource, new SimpleMeterRegistry(), 100, 1, 0, 30000, 60, 1.0);
+        purger.purge();
+
+        List<Long> remaining = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+        assertEquals(List.of(recent.getId(), live.getId()), remaining);
+    }
+
+    private long scannedPartitions(String explain) {
+        List<String> plan = jdbcTemplate.queryForList(explain, String.class);
+        Matcher matcher = PARTITION.matcher(String.join("\n", plan));
+        return matcher.results().map(result -> result.group()).distinct().count();
+    }
+
+    private User newUser(String email) {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail(email);
+        user.setAge(30);
+        return user;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class AdaptivePoolSizerTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+
+    private SimpleMeterRegistry meterRegistry;
+    private HikariDataSource dataSource;
+    private AdaptivePoolSizer sizer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        dataSource.setPoolName("test-pool");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setMinimumIdle(2);
+        dataSource.setMetricRegistry(meterRegistry);
+        sizer = new AdaptivePoolSizer(dataSource, meterRegistry, 2, 8, 2, 0.5, 0.05);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void adjust_ShouldGrowUnderContentionAndShrinkWhenIdle() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Timer repository = meterRegistry.timer("spring.data.repository.invocations");
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        List<Future<?>> load = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            load.add(clients.submit(() -> {
+                while (running.get()) {
+                    repository.record(() -> jdbcTemplate.execute("SELECT pg_sleep(0.02)"));
+                }
+            }));
+        }
+
+        try {
+            for (int round = 0; round < 5; round++) {
+                TimeUnit.MILLISECONDS.sleep(300);
+                sizer.adjust();
+            }
+            assertEquals(8, dataSource.getMaximumPoolSize());
+        } finally {
+            running.set(false);
+            for (Future<?> future : load) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            clients.shutdown();
+        }
+
+        for (int round = 0; round < 5; round++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+            sizer.adjust();
+        }
+        assertEquals(2, dataSource.getMaximumPoolSize());
+    }
+
+    @Test
+    void resize_ShouldRestoreConfiguredMinimumIdleWhenGrowing() {
+        try (HikariDataSource configured = new HikariDataSource()) {
+            configured.setMaximumPoolSize(8);
+            configured.setMinimumIdle(6);
+            AdaptivePoolSizer resizer = new AdaptivePoolSizer(configured, meterRegistry, 2, 8, 2, 0.5, 0.05);
+
+            resizer.resize(2);
+            assertEquals(2, configured.getMinimumIdle());
+
+            resizer.resize(4);
+            assertEquals(4, configured.getMinimumIdle());
+
+            resizer.resize(8);
+            assertEquals(6, configured.getMinimumIdle());
+            assertEquals(8, configured.getMaximumPoolSize());
+        }
+    }
+
+    @Test
+    void nextSize_ShouldStayWithinBounds() {
+        assertEquals(8, sizer.nextSize(8, 50, 10, 4, 0));
+        assertEquals(4, sizer.nextSize(2, 50, 10, 4, 0));
+        assertEquals(2, sizer.nextSize(2, 0, 10, 0, 2));
+        assertEquals(4, sizer.nextSize(4, 2, 10, 0, 0));
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.service;
+
+import org.example.dto.UserEventDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSpoolTest {
+
+    private static final int SEGMENT_BYTES = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendAndRead_ShouldReturnEventsInOrder() {
+        EventSpool spool = new EventSpool(directory.toString(), SEGMENT_BYTES);
+        spool.append("CREATE", "john@example.com");
+        spool.append("DELETE", "jane@example.com");
+
+        SpoolBatch batch = spool.read(10);
+
+        assertEquals(2, batch.events().size());
+        assertEquals(new UserEventDto("CREATE", "john@example.com"), batch.events().get(0));
+        assertEquals(new UserEventDto("DELETE", "jane@example.com"), batch.events().get(1));
+    }
+
+    @Test
+    void commit_ShouldAdvancePastReplayedEventsAndDeleteSegments() throws Exception {
+        EventSpool spool = new EventSpool(directory.toString(), SEGMENT_BYTES);
+        for (int i = 0; i < 20; i++) {
+            spool.append("CREATE", "user" + i + "@example.com");
+        }
+        assertTrue(segmentFiles() > 1);
+
+        SpoolBatch batch = spool.read(100);
+        assertEquals(20, batch.events().size());
+        assertEquals("user19@example.com", batch.events().get(19).getEmail());
+
+        spool.commit(batch);
+
+        assertFalse(spool.hasPending());
+        assertTrue(spool.read(100).isEmpty());
+        assertEquals(1, segmentFiles());
+    }
+
+    @Test
+    void reopen_ShouldResumeFromCheckpointAndKeepAppending() {
+        EventSpool spool = new EventSpool(directory.toString(), SEGMENT_BYTES);
+        spool.append("CREATE", "john@example.com");
+        spool.append("CREATE", "jane@example.com");
+        SpoolBatch first = spool.read(1);
+        spool.commit(first);
+        spool.flush();
+
+        EventSpool reopened = new EventSpool(directory.toString(), SEGMENT_BYTES);
+        reopened.append("DELETE", "john@example.com");
+        SpoolBatch remaining = reopened.read(10);
+
+        assertEquals(2, remaining.events().size());
+        assertEquals("jane@example.com", remaining.events().get(0).getEmail());
+        assertEquals("DELETE", remaining.events().get(1).getOperation());
+    }
+
+    @Test
+    void read_WithCorruptRecord_ShouldStopAtLastValidRecord() throws Exception {
+        EventSpool spool = new EventSpool(directory.toString(), SEGMENT_BYTES);
+        spool.append("CREATE", "john@example.com");
+        spool.append("CREATE", "jane@example.com");
+        spool.flush();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".spool")).findFirst().orElseThrow();
+        }
+        int secondRecordPayload = 8 + 2 + "CREATE".length() + 2 + "john@example.com".length() + 8;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), secondRecordPayload);
+        }
+
+        EventSpool reopened = new EventSpool(directory.toString(), SEGMENT_BYTES);
+        SpoolBatch batch = reopened.read(10);
+
+        assertEquals(1, batch.events().size());
+        assertEquals("john@example.com", batch.events().get(0).getEmail());
+
+        byte[] bytes = Files.readAllBytes(segment);
+        int firstRecordEnd = 8 + 2 + "CREATE".length() + 2 + "john@example.com".length();
+        for (int i = firstRecordEnd; i < bytes.length; i++) {
+            assertEquals(0, bytes[i], "torn tail should be cleared at offset " + i);
+        }
+    }
+
+    @Test
+    void read_WithMissingSegment_ShouldSkipItWithoutRecreatingIt() throws Exception {
+        EventSpool spool = new EventSpool(directory.toString(), SEGMENT_BYTES);
+        for (int i = 0; i < 20; i++) {
+            spool.append("CREATE", "user" + i + "@example.com");
+        }
+        Path first;
+        try (Stream<Path> files = Files.list(directory)) {
+            first = files.filter(path -> path.toString().endsWith(".spool")).sorted().findFirst().orElseThrow();
+        }
+        Files.delete(first);
+
+        SpoolBatch batch = spool.read(100);
+
+        assertFalse(batch.isEmpty());
+        assertFalse(Files.exists(first));
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".spool")).count();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.example.dto.UserEventDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class KafkaProducerServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private EventSpool spool;
+    private KafkaTemplate<String, UserEventDto> kafkaTemplate;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private KafkaProducerService producerService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        spool = new EventSpool(directory.toString(), 4096);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        producerService = new KafkaProducerService(kafkaTemplate, spool, circuitBreakerRegistry, "user-events");
+    }
+
+    @Test
+    void sendUserEvent_WithSpoolBacklog_ShouldQueueBehindIt() {
+        spool.append("CREATE", "john@example.com");
+
+        producerService.sendUserEvent("DELETE", "john@example.com");
+
+        verifyNoInteractions(kafkaTemplate);
+        assertEquals(List.of(new UserEventDto("CREATE", "john@example.com"), new UserEventDto("DELETE", "john@example.com")),
+                spool.read(10).events());
+    }
+
+    @Test
+    void sendUserEvent_ShouldSpoolOnlyFailedDeliveries() {
+        CompletableFuture<SendResult<String, UserEventDto>> acknowledged = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, UserEventDto>> failed = new CompletableFuture<>();
+        when(kafkaTemplate.send("user-events", "john@example.com", new UserEventDto("CREATE", "john@example.com")))
+                .thenReturn(acknowledged);
+        when(kafkaTemplate.send("user-events", "jane@example.com", new UserEventDto("CREATE", "jane@example.com")))
+                .thenReturn(failed);
+
+        producerService.sendUserEvent("CREATE", "john@example.com");
+        producerService.sendUserEvent("CREATE", "jane@example.com");
+        // however late, an acknowledgement means the event is not replayed
+        acknowledged.complete(new SendResult<>(null,
+                new RecordMetadata(new TopicPartition("user-events", 0), 0, 0, 0, 0, 0)));
+        failed.completeExceptionally(new TimeoutException("Expiring 1 record(s): delivery.timeout.ms has passed"));
+
+        assertEquals(List.of(new UserEventDto("CREATE", "jane@example.com")), spool.read(10).events());
+    }
+
+    @Test
+    void sendUserEvent_WhenBreakerOpen_ShouldSpool() {
+        circuitBreakerRegistry.circuitBreaker("kafkaProducer").transitionToOpenState();
+
+        producerService.sendUserEvent("CREATE", "john@example.com");
+
+        verifyNoInteractions(kafkaTemplate);
+        assertEquals(List.of(new UserEventDto("CREATE", "john@example.com")), spool.read(10).events());
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.UserEventDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class KafkaSpoolReplayerTest {
+
+    private static final String TOPIC = "user-events";
+
+    @TempDir
+    Path directory;
+
+    private EventSpool spool;
+    private KafkaTemplate<String, UserEventDto> kafkaTemplate;
+    private CircuitBreaker circuitBreaker;
+    private KafkaSpoolReplayer replayer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        spool = new EventSpool(directory.toString(), 4096);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .permittedNumberOfCallsInHalfOpenState(1)
+                .build());
+        circuitBreaker = registry.circuitBreaker("kafkaProducer");
+        replayer = new KafkaSpoolReplayer(spool, kafkaTemplate, registry, new SimpleMeterRegistry(), TOPIC, 2, 10, 1000);
+    }
+
+    @Test
+    void replay_WhenBreakerHalfOpen_ShouldDrainSpoolInOrderAndCloseBreaker() {
+        spool.append("CREATE", "john@example.com");
+        spool.append("DELETE", "john@example.com");
+        spool.append("CREATE", "jane@example.com");
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        replayer.replay();
+
+        InOrder inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send(TOPIC, "john@example.com", new UserEventDto("CREATE", "john@example.com"));
+        inOrder.verify(kafkaTemplate).send(TOPIC, "john@example.com", new UserEventDto("DELETE", "john@example.com"));
+        inOrder.verify(kafkaTemplate).send(TOPIC, "jane@example.com", new UserEventDto("CREATE", "jane@example.com"));
+        assertFalse(spool.hasPending());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void replay_WhenBreakerOpen_ShouldKeepSpool() {
+        spool.append("CREATE", "john@example.com");
+        circuitBreaker.transitionToOpenState();
+
+        replayer.replay();
+
+        verifyNoInteractions(kafkaTemplate);
+        assertTrue(spool.hasPending());
+    }
+
+    @Test
+    void replay_WhenSendFails_ShouldKeepBatchAndRecordFailure() {
+        spool.append("CREATE", "john@example.com");
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        replayer.replay();
+
+        assertTrue(spool.hasPending());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
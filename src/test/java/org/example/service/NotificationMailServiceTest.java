@@ -0,0 +1,98 @@
+package org.example.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.example.dto.UserEventDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationMailServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private MeterRegistry meterRegistry;
+    private NotificationMailService mailService;
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        // Boot's auto-configured sender defaults to UTF-8, the bare one to the platform charset
+        mailSender.setDefaultEncoding("UTF-8");
+
+        meterRegistry = new SimpleMeterRegistry();
+        mailService = new NotificationMailService(mailSender, meterRegistry,
+                "noreply@example.com", 100, 2, 10, 3, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailService.stop();
+    }
+
+    @Test
+    void onUserEvent_ShouldDeliverCreateAndDeleteMail() throws Exception {
+        mailService.start();
+
+        mailService.onUserEvent(new UserEventDto("CREATE", "john@example.com"));
+        mailService.onUserEvent(new UserEventDto("DELETE", "jane@example.com"));
+
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> greenMail.getReceivedMessages().length == 2);
+
+        MimeMessage[] received = greenMail.getReceivedMessagesForDomain("example.com");
+        assertEquals(2, received.length);
+        assertEquals(1, greenMail.getReceivedMessagesForDomain("john@example.com").length);
+        assertEquals("Добро пожаловать!", greenMail.getReceivedMessagesForDomain("john@example.com")[0].getSubject());
+        assertEquals("Ваш аккаунт удален", greenMail.getReceivedMessagesForDomain("jane@example.com")[0].getSubject());
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> meterRegistry.counter("mail.sent").count() == 2.0);
+        assertTrue(meterRegistry.timer("mail.send.latency").count() > 0);
+    }
+
+    @Test
+    void onUserEvent_WithPendingDuplicate_ShouldSendOnce() {
+        mailService.onUserEvent(new UserEventDto("CREATE", "john@example.com"));
+        mailService.onUserEvent(new UserEventDto("CREATE", "JOHN@example.com"));
+
+        assertEquals(1.0, meterRegistry.get("mail.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.counter("mail.deduplicated").count());
+
+        mailService.start();
+
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> meterRegistry.counter("mail.sent").count() == 1.0);
+        assertEquals(1, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void service_ShouldOnlyBeCreatedWhenEnabledWithMailHost() {
+        ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+                .withBean(JavaMailSender.class, JavaMailSenderImpl::new)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withUserConfiguration(NotificationMailService.class);
+
+        contextRunner.withPropertyValues("app.mail.enabled=true")
+                .run(context -> assertEquals(0, context.getBeanNamesForType(NotificationMailService.class).length));
+        contextRunner.withPropertyValues("spring.mail.host=localhost")
+                .run(context -> assertEquals(0, context.getBeanNamesForType(NotificationMailService.class).length));
+        contextRunner.withPropertyValues("app.mail.enabled=true", "spring.mail.host=localhost")
+                .run(context -> assertEquals(1, context.getBeanNamesForType(NotificationMailService.class).length));
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.service;
+
+import org.example.dto.UserDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2024, 1, 15, 10, 30);
+    private static final LocalDateTime T2 = T1.plusMinutes(1);
+
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(100, 300);
+    }
+
+    @Test
+    void put_ReadStartedBeforeEviction_ShouldBeRejected() {
+        long stamp = userCache.stamp();
+        userCache.evict(1L);
+
+        userCache.put(user("old@example.com"), T1, stamp);
+
+        assertNull(userCache.get(1L));
+    }
+
+    @Test
+    void put_ReadStartedAfterEviction_ShouldBeCached() {
+        userCache.evict(1L);
+        long stamp = userCache.stamp();
+
+        userCache.put(user("new@example.com"), T2, stamp);
+
+        assertEquals("new@example.com", userCache.get(1L).getEmail());
+    }
+
+    @Test
+    void put_OlderVersion_ShouldNotReplaceNewerEntry() {
+        userCache.put(user("new@example.com"), T2, userCache.stamp());
+
+        userCache.put(user("old@example.com"), T1, userCache.stamp());
+
+        assertEquals("new@example.com", userCache.get(1L).getEmail());
+    }
+
+    private static UserDto user(String email) {
+        return new UserDto(1L, "John Doe", email, 25, T1);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.UserDto;
+import org.example.dto.UserSuggestionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class UserNameIndexTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private UserNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        index = new UserNameIndex(jdbcTemplate, transactionManager, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    void rebuild_ShouldScanInReadOnlyTransactionAndRollBackOnFailure() {
+        doThrow(new QueryTimeoutException("scan cancelled"))
+                .when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        assertThrows(QueryTimeoutException.class, index::rebuild);
+
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(transactionManager).rollback(any());
+        index.onUserChanged(new UserChangedEvent(null, user(1L, "John Doe")));
+        assertEquals(List.of(1L), ids(index.suggest("J", 10)));
+    }
+
+    @Test
+    void suggest_ShouldMatchPrefixIgnoringCaseInNameOrder() {
+        index.onUserChanged(new UserChangedEvent(null, user(1L, "John Doe")));
+        index.onUserChanged(new UserChangedEvent(null, user(2L, "jane Doe")));
+        index.onUserChanged(new UserChangedEvent(null, user(3L, "Jack Black")));
+        index.onUserChanged(new UserChangedEvent(null, user(4L, "Mary Major")));
+
+        assertEquals(List.of(3L, 2L, 1L), ids(index.suggest("J", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("JAN", 10)));
+        assertEquals(List.of(3L, 2L), ids(index.suggest("ja", 2)));
+        assertTrue(index.suggest("Z", 10).isEmpty());
+    }
+
+    @Test
+    void onUserChanged_ShouldFollowRenamesAndDeletes() {
+        UserDto john = user(1L, "John Doe");
+        index.onUserChanged(new UserChangedEvent(null, john));
+        UserDto renamed = user(1L, "Bob Doe");
+        index.onUserChanged(new UserChangedEvent(john, renamed));
+
+        assertTrue(index.suggest("Jo", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.suggest("bo", 10)));
+
+        index.onUserChanged(new UserChangedEvent(renamed, null));
+
+        assertTrue(index.suggest("Bo", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void suggest_ShouldMergeCompactedArraysWithLaterChanges() {
+        for (long id = 1; id <= 3000; id++) {
+            index.onUserChanged(new UserChangedEvent(null, user(id, "user-" + id)));
+        }
+        index.onUserChanged(new UserChangedEvent(user(5L, "user-5"), null));
+        index.onUserChanged(new UserChangedEvent(null, user(5000L, "user-50")));
+
+        assertEquals(3000, index.size());
+        assertEquals(List.of(50L, 5000L, 500L, 501L), ids(index.suggest("USER-50", 4)));
+        assertTrue(index.estimatedBytes() > 3000L * 12);
+    }
+
+    private static UserDto user(Long id, String name) {
+        return new UserDto(id, name, "user" + id + "@example.com", 30, LocalDateTime.now());
+    }
+
+    private static List<Long> ids(List<UserSuggestionDto> suggestions) {
+        return suggestions.stream().map(UserSuggestionDto::getId).toList();
+    }
+}
@@ -4,6 +4,7 @@ import org.example.User;
 import org.example.dto.CreateUserDto;
 import org.example.dto.UpdateUserDto;
 import org.example.dto.UserDto;
+import org.example.dto.UserEventDto;
 import org.example.exception.UserAlreadyExistsException;
 import org.example.exception.UserNotFoundException;
 import org.example.repository.UserRepository;
@@ -13,11 +14,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,6 +36,12 @@ class UserServiceTest {
     @Mock
     private KafkaProducerService kafkaProducerService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -69,6 +79,7 @@ class UserServiceTest {
         verify(userRepository, times(1)).existsByEmail(createUserDto.getEmail());
         verify(userRepository, times(1)).save(any(User.class));
         verify(kafkaProducerService, times(1)).sendUserEvent("CREATE", user.getEmail());
+        verify(eventPublisher, times(1)).publishEvent(new UserEventDto("CREATE", user.getEmail()));
     }
 
     @Test
@@ -78,7 +89,7 @@ class UserServiceTest {
         UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
                 () -> userService.createUser(createUserDto));
 
-        assertNotEquals("User with email " + createUserDto.getEmail() + " already exists", exception.getMessage());
+        assertEquals("User with email " + createUserDto.getEmail() + " already exists", exception.getMessage());
         verify(userRepository, times(1)).existsByEmail(createUserDto.getEmail());
         verify(userRepository, never()).save(any(User.class));
     }
@@ -98,6 +109,17 @@ class UserServiceTest {
         verify(userRepository, times(1)).findById(1L);
     }
 
+    @Test
+    void getUserById_WithCachedUser_ShouldNotQueryRepository() {
+        UserDto cached = new UserDto(1L, "John Doe", "john@example.com", 25, LocalDateTime.now());
+        when(userCache.get(1L)).thenReturn(cached);
+
+        UserDto result = userService.getUserById(1L);
+
+        assertSame(cached, result);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
     @Test
     void getUserById_WithNonExistentId_ShouldThrowException() {
         when(userRepository.findById(999L)).thenReturn(Optional.empty());
@@ -106,29 +128,21 @@ class UserServiceTest {
                 () -> userService.getUserById(999L));
 
         assertEquals("User with id 999 not found", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
         verify(userRepository, times(1)).findById(999L);
     }
 
     @Test
-    void getAllUsers_ShouldReturnListOfUserDtos() {
-        User user2 = new User();
-        user2.setId(2L);
-        user2.setName("Jane Doe");
-        user2.setEmail("jane@example.com");
-        user2.setAge(30);
-        user2.setCreatedAt(LocalDateTime.now());
+    void streamAllUsers_ShouldPassCursorToWriterAndCloseIt() throws Exception {
+        UserDto jane = new UserDto(2L, "Jane Doe", "jane@example.com", 30, LocalDateTime.now());
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userRepository.streamAll()).thenReturn(Stream.of(jane).onClose(() -> closed.set(true)));
+        List<UserDto> written = new ArrayList<>();
 
-        List<User> users = Arrays.asList(user, user2);
-        when(userRepository.findAll()).thenReturn(users);
+        userService.streamAllUsers(users -> users.forEachRemaining(written::add));
 
-        List<UserDto> result = userService.getAllUsers();
-
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals(user.getId(), result.get(0).getId());
-        assertEquals(user2.getId(), result.get(1).getId());
-
-        verify(userRepository, times(1)).findAll();
+        assertEquals(List.of(jane), written);
+        assertTrue(closed.get());
     }
 
     @Test
@@ -166,35 +180,70 @@ class UserServiceTest {
         UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
                 () -> userService.updateUser(1L, updateUserDto));
 
-        assertNotEquals("User with email " + updateUserDto.getEmail() + " already exists", exception.getMessage());
+        assertEquals("User with email " + updateUserDto.getEmail() + " already exists", exception.getMessage());
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).existsByEmail(updateUserDto.getEmail());
         verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
-    void deleteUser_ShouldDeleteUser() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        doNothing().when(userRepository).deleteById(1L);
+    void deleteUser_ShouldSoftDeleteUser() {
+        when(userRepository.softDeleteById(1L)).thenReturn(Optional.of(user));
         doNothing().when(kafkaProducerService).sendUserEvent(anyString(), anyString());
 
         userService.deleteUser(1L);
 
-        verify(userRepository, times(1)).findById(1L);
-        verify(userRepository, times(1)).deleteById(1L);
+        verify(userRepository, times(1)).softDeleteById(1L);
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).deleteById(anyLong());
+        verify(userCache).evict(1L);
         verify(kafkaProducerService, times(1)).sendUserEvent("DELETE", user.getEmail());
+        verify(eventPublisher, times(1)).publishEvent(new UserEventDto("DELETE", user.getEmail()));
     }
 
     @Test
     void deleteUser_WithNonExistentId_ShouldThrowException() {
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userRepository.softDeleteById(999L)).thenReturn(Optional.empty());
 
         UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> userService.deleteUser(999L));
 
         assertEquals("User with id 999 not found", exception.getMessage());
-        verify(userRepository, times(1)).findById(999L);
-        verify(userRepository, never()).deleteById(anyLong());
+        verify(userRepository, times(1)).softDeleteById(999L);
         verify(kafkaProducerService, never()).sendUserEvent(anyString(), anyString());
     }
+
+    @Test
+    void createUser_ShouldCheckUniquenessOnNormalizedEmail() {
+        createUserDto.setEmail("  John@Example.COM ");
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(true);
+
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
+                () -> userService.createUser(createUserDto));
+
+        assertEquals("User with email John@Example.COM already exists", exception.getMessage());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void getUserByEmail_ShouldResolveNormalizedEmailThroughCache() {
+        UserDto cached = new UserDto(1L, "John Doe", "john@example.com", 25, user.getCreatedAt());
+        when(userRepository.findIdByEmail("john@example.com")).thenReturn(Optional.of(1L));
+        when(userCache.get(1L)).thenReturn(cached);
+
+        UserDto result = userService.getUserByEmail(" JOHN@example.com");
+
+        assertSame(cached, result);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getUserByEmail_WithUnknownEmail_ShouldThrowException() {
+        when(userRepository.findIdByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        UserNotFoundException exception = assertThrows(UserNotFoundException.class,
+                () -> userService.getUserByEmail("nobody@example.com"));
+
+        assertEquals("User with email nobody@example.com not found", exception.getMessage());
+    }
 }
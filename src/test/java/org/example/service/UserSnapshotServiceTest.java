@@ -0,0 +1,93 @@
+package org.example.service;
+
+import org.example.dto.UserDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserSnapshotServiceTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 2, 1, 9, 0, 0, 456_000);
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private UserCache userCache;
+    private UserSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        userCache = new UserCache(100, 300);
+        snapshotService = new UserSnapshotService(userCache, jdbcTemplate,
+                directory.resolve("users.snapshot").toString(), 10);
+    }
+
+    @Test
+    void writeThenLoad_ShouldRestoreUsersStillValidInDatabase() throws Exception {
+        UserDto john = new UserDto(1L, "Иван Иванов", "john@example.com", 25, LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123));
+        UserDto jane = new UserDto(2L, "Jane Doe", "jane@example.com", 30, null);
+        userCache.put(john, UPDATED_AT, userCache.stamp());
+        userCache.put(jane, UPDATED_AT, userCache.stamp());
+        userCache.get(1L);
+
+        snapshotService.write();
+
+        UserCache restoredCache = new UserCache(100, 300);
+        UserSnapshotService restoring = new UserSnapshotService(restoredCache, jdbcTemplate,
+                directory.resolve("users.snapshot").toString(), 10);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong(1)).thenReturn(1L);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        int restored = restoring.load();
+
+        assertEquals(1, restored);
+        assertEquals(john, restoredCache.get(1L));
+        assertNull(restoredCache.get(2L));
+    }
+
+    @Test
+    void write_ShouldKeepOnlyHottestUsers() throws Exception {
+        UserSnapshotService limited = new UserSnapshotService(userCache, jdbcTemplate,
+                directory.resolve("users.snapshot").toString(), 1);
+        userCache.put(new UserDto(1L, "John Doe", "john@example.com", 25, null), UPDATED_AT, userCache.stamp());
+        userCache.put(new UserDto(2L, "Jane Doe", "jane@example.com", 30, null), UPDATED_AT, userCache.stamp());
+        userCache.get(2L);
+        userCache.get(2L);
+
+        limited.write();
+
+        UserCache restoredCache = new UserCache(100, 300);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong(1)).thenReturn(2L);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        int restored = new UserSnapshotService(restoredCache, jdbcTemplate,
+                directory.resolve("users.snapshot").toString(), 1).load();
+
+        assertEquals(1, restored);
+        assertEquals(1, restoredCache.size());
+        assertNotNull(restoredCache.get(2L));
+    }
+}
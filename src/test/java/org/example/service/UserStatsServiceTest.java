@@ -0,0 +1,153 @@
+package org.example.service;
+
+import org.example.dto.UserDto;
+import org.example.dto.UserStatsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserStatsServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        statsService = new UserStatsService(jdbcTemplate, mock(PlatformTransactionManager.class), 7);
+        when(jdbcTemplate.queryForObject("SELECT pg_current_snapshot()::text", String.class))
+                .thenReturn("100:104:102");
+    }
+
+    @Test
+    void onUserChanged_ShouldMaintainCountsIncrementally() {
+        LocalDateTime now = LocalDateTime.now();
+        UserDto john = new UserDto(1L, "John Doe", "john@example.com", 25, now);
+        UserDto jane = new UserDto(2L, "Jane Doe", "jane@example.com", 17, now);
+
+        statsService.onUserChanged(new UserChangedEvent(null, john));
+        statsService.onUserChanged(new UserChangedEvent(null, jane));
+        statsService.onUserChanged(new UserChangedEvent(john,
+                new UserDto(1L, "John Doe", "john@example.com", 40, now)));
+
+        UserStatsDto stats = statsService.getStats();
+        assertEquals(2, stats.getTotalCount());
+        assertEquals(1L, stats.getAgeHistogram().get("0-17"));
+        assertEquals(0L, stats.getAgeHistogram().get("25-34"));
+        assertEquals(1L, stats.getAgeHistogram().get("35-44"));
+        assertEquals(2L, stats.getCreatedPerDay().get(LocalDate.now().toString()));
+        assertEquals(7, stats.getCreatedPerDay().size());
+
+        statsService.onUserChanged(new UserChangedEvent(jane, null));
+
+        stats = statsService.getStats();
+        assertEquals(1, stats.getTotalCount());
+        assertEquals(0L, stats.getAgeHistogram().get("0-17"));
+        assertEquals(1L, stats.getCreatedPerDay().get(LocalDate.now().toString()));
+    }
+
+    @Test
+    void reconcile_ShouldReplayChangesCommittedWhileQueryRuns() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        UserDto john = new UserDto(1L, "John Doe", "john@example.com", 25, now);
+        statsService.onUserChanged(new UserChangedEvent(null, john));
+
+        doAnswer(invocation -> {
+            // committed after the snapshot, so the query does not count it
+            statsService.onUserChanged(new UserChangedEvent(null,
+                    new UserDto(2L, "Jane Doe", "jane@example.com", 17, now)));
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong("users")).thenReturn(1L);
+            when(resultSet.getInt("age")).thenReturn(25);
+            when(resultSet.getDate("day")).thenReturn(Date.valueOf(now.toLocalDate()));
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        statsService.reconcile();
+
+        UserStatsDto stats = statsService.getStats();
+        assertEquals(2, stats.getTotalCount());
+        assertEquals(1L, stats.getAgeHistogram().get("0-17"));
+        assertEquals(1L, stats.getAgeHistogram().get("25-34"));
+    }
+
+    @Test
+    void reconcile_ShouldSkipChangesTheSnapshotAlreadySaw() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        UserDto john = new UserDto(1L, "John Doe", "john@example.com", 25, now);
+        UserDto jane = new UserDto(2L, "Jane Doe", "jane@example.com", 17, now);
+        UserDto mary = new UserDto(3L, "Mary Major", "mary@example.com", 40, now);
+
+        doAnswer(invocation -> {
+            // 101 committed before the snapshot but is recorded only now; 102 was still in progress
+            commit(new UserChangedEvent(null, john), 101);
+            commit(new UserChangedEvent(null, jane), 102);
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong("users")).thenReturn(1L);
+            when(resultSet.getInt("age")).thenReturn(25);
+            when(resultSet.getDate("day")).thenReturn(Date.valueOf(now.toLocalDate()));
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        statsService.reconcile();
+        // recorded after the swap: 103 was seen by the snapshot, 104 was not
+        commit(new UserChangedEvent(john, null), 103);
+        commit(new UserChangedEvent(null, mary), 104);
+
+        UserStatsDto stats = statsService.getStats();
+        assertEquals(3, stats.getTotalCount());
+        assertEquals(1L, stats.getAgeHistogram().get("0-17"));
+        assertEquals(1L, stats.getAgeHistogram().get("25-34"));
+        assertEquals(1L, stats.getAgeHistogram().get("35-44"));
+    }
+
+    @Test
+    void snapshot_ShouldSeeCommittedTransactionsOnly() {
+        UserStatsService.Snapshot snapshot = UserStatsService.Snapshot.parse("100:104:102,103");
+
+        assertTrue(snapshot.sees(99));
+        assertTrue(snapshot.sees(101));
+        assertFalse(snapshot.sees(102));
+        assertFalse(snapshot.sees(104));
+        assertFalse(snapshot.sees(-1));
+        assertTrue(UserStatsService.Snapshot.parse("100:100:").sees(99));
+    }
+
+    @Test
+    void ageBucket_ShouldUseLowerBounds() {
+        assertEquals(0, UserStatsService.ageBucket(1));
+        assertEquals(1, UserStatsService.ageBucket(18));
+        assertEquals(2, UserStatsService.ageBucket(34));
+        assertEquals(6, UserStatsService.ageBucket(99));
+    }
+
+    private void commit(UserChangedEvent event, long transactionId) {
+        when(jdbcTemplate.queryForObject("SELECT pg_current_xact_id()::text::bigint", Long.class))
+                .thenReturn(transactionId);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            statsService.onUserChanged(event);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}